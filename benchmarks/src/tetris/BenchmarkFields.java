@@ -0,0 +1,136 @@
+package tetris;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The seeded fields the benchmarks cycle through, so their results do not depend on a single lucky field and are the
+ * same from run to run. The fields of a fill level have their lowest rows stacked with random cells, and every field
+ * comes with a block to place on it, the block after it and a placement of the block.
+ */
+final class BenchmarkFields {
+    /**
+     * The number of fields of a fill level. A power of two, so the index of the next field is a mask away.
+     */
+    static final int FIELDS = 64;
+    final int width;
+    final int height;
+    final long[][] fields = new long[FIELDS][];
+    final long[][] fieldsWithLines = new long[FIELDS][];
+    final FieldStats[] stats = new FieldStats[FIELDS];
+    final TetrisBlock[] blocks = new TetrisBlock[FIELDS];
+    final TetrisBlock[] nextBlocks = new TetrisBlock[FIELDS];
+    final int[] placements = new int[FIELDS];
+    // where every block lands with its placement, packed like the moves of MoveSearch
+    final int[] landings = new int[FIELDS];
+
+    /**
+     * Generates the fields of a fill level on a board of the given size.
+     *
+     * @param fill   The percentage of stacked rows.
+     * @param width  The width of the board.
+     * @param height The height of the board.
+     */
+    BenchmarkFields(int fill, int width, int height) {
+        this.width = width;
+        this.height = height;
+        Random random = new Random(fill);
+        TetrisBlock[] shapes = new GameEngine(false).allBlocks;
+        for (int i = 0; i < FIELDS; i++) {
+            fields[i] = randomField(random, fill, false, width, height);
+            fieldsWithLines[i] = randomField(random, fill, true, width, height);
+            stats[i] = new FieldStats(width, height);
+            stats[i].compute(fields[i]);
+            blocks[i] = shapes[random.nextInt(shapes.length)];
+            blocks[i].spawn(width);
+            nextBlocks[i] = shapes[random.nextInt(shapes.length)];
+            int[] blockPlacements = blocks[i].getTable().getPlacements(width);
+            placements[i] = blockPlacements[random.nextInt(blockPlacements.length)];
+            landings[i] = MoveSearch.land(fields[i], width, stats[i].getHeights(), blocks[i], blocks[i].getX(),
+                    blocks[i].getY(), blocks[i].getCurrentRotation(), placements[i]);
+        }
+    }
+
+    /**
+     * Returns the index of the field after the given one, wrapping around.
+     *
+     * @param field The index of a field.
+     * @return The index of the next field.
+     */
+    static int next(int field) {
+        return (field + 1) & (FIELDS - 1);
+    }
+
+    /**
+     * Generates a field whose lowest rows are stacked with random cells.
+     *
+     * @param random    The random generator.
+     * @param fill      The percentage of stacked rows.
+     * @param fullLines Whether up to two of the stacked rows are full.
+     * @param width     The width of the field.
+     * @param height    The height of the field.
+     * @return The row masks of the field.
+     */
+    static long[] randomField(Random random, int fill, boolean fullLines, int width, int height) {
+        long fullRow = Board.fullRow(width);
+        long[] rows = new long[height];
+        int stacked = Math.round(height * fill / 100f);
+        for (int row = height - stacked; row < height; row++) {
+            rows[row] = random.nextLong() & fullRow & ~(1L << random.nextInt(width));
+        }
+        if (fullLines && stacked > 0) {
+            for (int i = 0; i < 2; i++) {
+                rows[height - 1 - random.nextInt(stacked)] = fullRow;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Generates {@value #FIELDS} fields that a single block clears completely: the rows of a position the block can
+     * move to from where it spawns on the empty well are full except for the cells of the block, and the block can
+     * still get there through the filled cells. The rows are no more than the oracle of {@link PerfectClear} looks
+     * at. Shapes that cannot get into such a field, like the X, are passed over.
+     *
+     * @param clearing Receives the block clearing every field, in the position it spawned in.
+     * @param width    The width of the fields.
+     * @param height   The height of the fields.
+     * @return The row masks of the fields.
+     */
+    static long[][] clearableFields(TetrisBlock[] clearing, int width, int height) {
+        TetrisBlock[] shapes = new GameEngine(false).allBlocks;
+        MoveGenerator generator = new MoveGenerator(width, height);
+        FieldStats stats = new FieldStats(width, height);
+        long[] empty = new long[height];
+        long[][] fields = new long[FIELDS][];
+        for (int i = 0, shape = 0; i < FIELDS; shape++) {
+            TetrisBlock block = new TetrisBlock(shapes[shape % shapes.length]);
+            block.spawn(width);
+            stats.compute(empty);
+            int count = generator.generate(empty, stats.getHeights(), block, block.getX(), block.getY(),
+                    block.getCurrentRotation());
+            int[] landings = new int[count];
+            Arrays.setAll(landings, generator::getLock);
+            // every position the block can get to on the empty well, until one is found or the block is passed over
+            for (int landing : landings) {
+                if (fields[i] != null) break;
+                int[] masks = block.getMasks(MoveSearch.rotationOf(landing));
+                if (MoveSearch.yOf(landing) < 0 || masks.length > PerfectClear.ORACLE_ROWS) continue;
+                long[] field = new long[height];
+                Board.place(field, masks, MoveSearch.xOf(landing), MoveSearch.yOf(landing));
+                for (int r = 0; r < masks.length; r++) {
+                    field[MoveSearch.yOf(landing) + r] ^= Board.fullRow(width);
+                }
+                stats.compute(field);
+                int reachable = generator.generate(field, stats.getHeights(), block, block.getX(), block.getY(),
+                        block.getCurrentRotation());
+                for (int j = 0; j < reachable; j++) {
+                    if (generator.getLock(j) == landing) fields[i] = field;
+                }
+            }
+            if (fields[i] != null) clearing[i++] = block;
+            if (shape > FIELDS * shapes.length) throw new IllegalStateException("No shape clears a field");
+        }
+        return fields;
+    }
+}
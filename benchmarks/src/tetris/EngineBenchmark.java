@@ -0,0 +1,111 @@
+package tetris;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.Color;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hot paths of the engine on the default board at different fill levels.
+ * Every invocation works on the next of the {@value BenchmarkFields#FIELDS} seeded fields of the fill level.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class EngineBenchmark {
+    /**
+     * The percentage of the rows that are stacked.
+     */
+    @Param({"0", "25", "50", "75"})
+    public int fill;
+    private BenchmarkFields fields;
+    private GameEngine engine;
+    private Board board;
+    private long[] scratch;
+    private int field;
+
+    @Setup
+    public void setUp() {
+        fields = new BenchmarkFields(fill, Board.DEFAULT_WIDTH, Board.DEFAULT_HEIGHT);
+        engine = new GameEngine(false, new Random(fill));
+        board = engine.getBoard();
+        scratch = new long[Board.DEFAULT_HEIGHT];
+    }
+
+    private int nextField() {
+        int current = field;
+        field = BenchmarkFields.next(field);
+        return current;
+    }
+
+    @Benchmark
+    public void load(Blackhole blackhole) {
+        board.load(fields.fieldsWithLines[nextField()], Color.GRAY);
+        blackhole.consume(board.getRows()[fields.height - 1]);
+    }
+
+    @Benchmark
+    public void clearLine(Blackhole blackhole) {
+        board.load(fields.fieldsWithLines[nextField()], Color.GRAY);
+        engine.clearLine();
+        blackhole.consume(engine.getScore());
+    }
+
+    /**
+     * The body of GameEngine.checkBottom for a block falling through the field.
+     */
+    @Benchmark
+    public void checkBottom(Blackhole blackhole) {
+        int i = nextField();
+        int landing = fields.landings[i];
+        int y = MoveSearch.yOf(landing) - i % 4;
+        blackhole.consume(Board.collides(fields.fields[i], fields.width,
+                fields.blocks[i].getMasks(MoveSearch.rotationOf(landing)), MoveSearch.xOf(landing), y + 1));
+    }
+
+    @Benchmark
+    public void rateField(Blackhole blackhole) {
+        blackhole.consume(GameEngine.rateField(fields.fields[nextField()], fields.width));
+    }
+
+    @Benchmark
+    public void ratePlacement(Blackhole blackhole) {
+        int i = nextField();
+        int landing = fields.landings[i];
+        blackhole.consume(fields.stats[i].ratePlacement(fields.fields[i],
+                fields.blocks[i].getMasks(MoveSearch.rotationOf(landing)), MoveSearch.xOf(landing),
+                MoveSearch.yOf(landing), WeightProfile.DEFAULT));
+    }
+
+    @Benchmark
+    public void dropAndGetResult(Blackhole blackhole) {
+        int i = nextField();
+        TetrisBlock block = fields.blocks[i];
+        int landing = MoveSearch.land(fields.fields[i], fields.width, fields.stats[i].getHeights(), block,
+                block.getX(), block.getY(), block.getCurrentRotation(), fields.placements[i]);
+        System.arraycopy(fields.fields[i], 0, scratch, 0, fields.height);
+        Board.place(scratch, block.getMasks(MoveSearch.rotationOf(landing)), MoveSearch.xOf(landing),
+                MoveSearch.yOf(landing));
+        blackhole.consume(scratch[fields.height - 1]);
+    }
+
+    @Benchmark
+    public void blockCopy(Blackhole blackhole) {
+        blackhole.consume(new TetrisBlock(fields.blocks[nextField()]));
+    }
+}
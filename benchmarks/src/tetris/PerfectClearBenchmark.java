@@ -0,0 +1,51 @@
+package tetris;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the perfect clear oracle on the empty default well with fields it is known to clear. The benchmark fails
+ * if the oracle misses one of them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class PerfectClearBenchmark {
+    private final TetrisBlock[] clearing = new TetrisBlock[BenchmarkFields.FIELDS];
+    private final TetrisBlock[] single = new TetrisBlock[1];
+    private long[][] clearable;
+    private PerfectClear perfectClear;
+    private int field;
+
+    @Setup
+    public void setUp() {
+        clearable = BenchmarkFields.clearableFields(clearing, Board.DEFAULT_WIDTH, Board.DEFAULT_HEIGHT);
+        perfectClear = new PerfectClear(Board.DEFAULT_WIDTH, Board.DEFAULT_HEIGHT);
+    }
+
+    @Benchmark
+    public void findPerfectClear(Blackhole blackhole) {
+        int i = field;
+        field = BenchmarkFields.next(field);
+        single[0] = clearing[i];
+        GameInput[] path = perfectClear.findPath(clearable[i], single);
+        if (path == null) {
+            throw new IllegalStateException("No perfect clear found on clearable field " + i);
+        }
+        blackhole.consume(path);
+    }
+}
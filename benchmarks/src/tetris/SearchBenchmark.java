@@ -0,0 +1,85 @@
+package tetris;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the searches of the bots at different fill levels, on the board of the game screens and on wider wells to
+ * show how their cost grows with the width of the board. The beam search runs without a time budget, so it always
+ * does the same work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class SearchBenchmark {
+    /**
+     * The percentage of the rows that are stacked.
+     */
+    @Param({"0", "25", "50", "75"})
+    public int fill;
+    /**
+     * The size of the board, as width x height.
+     */
+    @Param({"5x15", "10x20", "20x40"})
+    public String well;
+    private BenchmarkFields fields;
+    private MoveSearch search;
+    private BeamSearch beamSearch;
+    private MoveGenerator generator;
+    private final TetrisBlock[] upcoming = new TetrisBlock[2];
+    private int field;
+
+    @Setup
+    public void setUp() {
+        String[] size = well.split("x");
+        int width = Integer.parseInt(size[0]);
+        int height = Integer.parseInt(size[1]);
+        fields = new BenchmarkFields(fill, width, height);
+        search = new MoveSearch(width, height, WeightProfile.DEFAULT);
+        beamSearch = new BeamSearch(width, height, WeightProfile.DEFAULT, 3, 24, 0);
+        generator = new MoveGenerator(width, height);
+    }
+
+    private int nextField() {
+        int current = field;
+        field = BenchmarkFields.next(field);
+        return current;
+    }
+
+    @Benchmark
+    public void findBestMove(Blackhole blackhole) {
+        int i = nextField();
+        blackhole.consume(search.findBestMove(fields.fields[i], fields.stats[i], fields.blocks[i]));
+    }
+
+    @Benchmark
+    public void generateMoves(Blackhole blackhole) {
+        int i = nextField();
+        TetrisBlock block = fields.blocks[i];
+        blackhole.consume(generator.generate(fields.fields[i], fields.stats[i].getHeights(), block, block.getX(),
+                block.getY(), block.getCurrentRotation()));
+    }
+
+    @Benchmark
+    public void beamSearch(Blackhole blackhole) {
+        int i = nextField();
+        upcoming[0] = fields.nextBlocks[i];
+        upcoming[1] = fields.blocks[BenchmarkFields.next(i)];
+        blackhole.consume(beamSearch.findBestMove(fields.fields[i], fields.stats[i], fields.blocks[i], upcoming));
+    }
+}
@@ -12,13 +12,15 @@ public class FShape extends TetrisBlock {
         };
     }
 
+    private static final PlacementTable TABLE = new PlacementTable(setShape());
+
     private static Color setColor() {
         return new Color(255, 105, 97);
     }
 
 
     public FShape() {
-        super(setShape(), setColor()); // Static method is used here
+        super(TABLE, setColor()); // Static method is used here
     }
 }
 
@@ -11,24 +11,24 @@ public class IShape extends TetrisBlock {
         };
     }
 
+    private static final PlacementTable TABLE = new PlacementTable(setShape());
+
     private static Color setColor() {
         return new Color(255, 179, 71);
     }
 
     public IShape() {
-        super(setShape(), setColor()); // Static method is used here
+        super(TABLE, setColor()); // Static method is used here
+    }
+
+    @Override
+    public int getRotationShiftX(int rotation) {
+        return this.getWidth(rotation) == 1 ? 2 : -2;
     }
 
     @Override
-    public void rotate() {
-        super.rotate();
-        if (this.getWidth() == 1) {
-            this.setX(this.getX() + 2);
-            this.setY(this.getY() - 2);
-        } else {
-            this.setX(this.getX() - 2);
-            this.setY(this.getY() + 2);
-        }
+    public int getRotationShiftY(int rotation) {
+        return this.getWidth(rotation) == 1 ? -2 : 2;
     }
 }
 
@@ -12,13 +12,15 @@ public class LShape extends TetrisBlock {
         };
     }
 
+    private static final PlacementTable TABLE = new PlacementTable(setShape());
+
     private static Color setColor() {
         return new Color(255, 255, 128);
     }
 
 
     public LShape() {
-        super(setShape(), setColor()); // Static method is used here
+        super(TABLE, setColor()); // Static method is used here
     }
 }
 
@@ -12,13 +12,15 @@ public class NShape extends TetrisBlock {
         };
     }
 
+    private static final PlacementTable TABLE = new PlacementTable(setShape());
+
     private static Color setColor() {
         return new Color(128, 255, 0);
     }
 
 
     public NShape() {
-        super(setShape(), setColor()); // Static method is used here
+        super(TABLE, setColor()); // Static method is used here
     }
 }
 
@@ -12,13 +12,15 @@ public class PShape extends TetrisBlock {
         };
     }
 
+    private static final PlacementTable TABLE = new PlacementTable(setShape());
+
     private static Color setColor() {
         return new Color(102, 178, 255);
     }
 
 
     public PShape() {
-        super(setShape(), setColor()); // Static method is used here
+        super(TABLE, setColor()); // Static method is used here
     }
 }
 
@@ -0,0 +1,168 @@
+package blocks;
+
+import tetris.Board;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Describes every rotation of a pentomino and every place on the board it can be dropped to.
+ * Each shape class builds its table once when the class is loaded and shares it between all its blocks.
+ * Tables are immutable; the arrays returned by the getters must not be modified. The placements on a board of
+ * the default width are listed when the table is built, those on other widths when a board of that width first
+ * asks for them.
+ * <p>
+ * Rotations that look the same, like all four rotations of the X pentomino, are mapped to the first of them,
+ * so the placements only contain every distinct rotation once. A placement is a rotation and the column of the
+ * left edge of the block, packed into one int by {@link #placement(int, int)}.
+ */
+public final class PlacementTable {
+    public static final int ROTATIONS = 4;
+    private final int[][][] shapes = new int[ROTATIONS][][];
+    private final int[][] masks = new int[ROTATIONS][];
+    // per rotation and column of the block, the row of the lowest cell or -1 for an empty column
+    private final int[][] bottoms = new int[ROTATIONS][];
+    private final int[] canonicalRotations = new int[ROTATIONS];
+    // the placements by width of the board; threads racing to list them for a new width list equal arrays
+    private final AtomicReferenceArray<int[]> placements = new AtomicReferenceArray<>(Board.MAX_WIDTH + 1);
+
+    /**
+     * Builds the table of a shape.
+     *
+     * @param shape The 2D array representing the shape in its first orientation.
+     */
+    public PlacementTable(int[][] shape) {
+        for (int rotation = 0; rotation < ROTATIONS; rotation++) {
+            // rotate the previous orientation clockwise
+            int r = shape[0].length;
+            int c = shape.length;
+            int[][] rotated = new int[r][c];
+            for (int y = 0; y < r; y++) {
+                for (int x = 0; x < c; x++) {
+                    rotated[y][x] = shape[c-x-1][y];
+                }
+            }
+            shape = rotated;
+            shapes[rotation] = rotated;
+            masks[rotation] = toMasks(rotated);
+            bottoms[rotation] = toBottoms(rotated);
+            // map rotations that look like an earlier one to it
+            canonicalRotations[rotation] = rotation;
+            for (int earlier = 0; earlier < rotation; earlier++) {
+                if (Arrays.deepEquals(shapes[earlier], rotated)) {
+                    canonicalRotations[rotation] = earlier;
+                    break;
+                }
+            }
+        }
+        placements.set(Board.DEFAULT_WIDTH, listPlacements(Board.DEFAULT_WIDTH));
+    }
+
+    /**
+     * Lists every distinct rotation in every column it fits in on a board of the given width.
+     */
+    private int[] listPlacements(int boardWidth) {
+        int[] result = new int[maxPlacements(boardWidth)];
+        int count = 0;
+        for (int rotation = 0; rotation < ROTATIONS; rotation++) {
+            if (canonicalRotations[rotation] != rotation) continue;
+            for (int x = 0; x <= boardWidth - getWidth(rotation); x++) {
+                result[count++] = placement(rotation, x);
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the maximum number of placements of any table on a board of the given width.
+     *
+     * @param boardWidth The width of the board.
+     * @return The maximum number of placements.
+     */
+    public static int maxPlacements(int boardWidth) {
+        return ROTATIONS * boardWidth;
+    }
+
+    /**
+     * Converts a shape into row masks, in which bit {@code col} of a row is set when the cell is filled.
+     */
+    private static int[] toMasks(int[][] shape) {
+        int[] result = new int[shape.length];
+        for (int row = 0; row < shape.length; row++) {
+            for (int col = 0; col < shape[row].length; col++) {
+                if (shape[row][col] != 0) result[row] |= 1 << col;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the row of the lowest filled cell in every column of a shape.
+     */
+    private static int[] toBottoms(int[][] shape) {
+        int[] result = new int[shape[0].length];
+        Arrays.fill(result, -1);
+        for (int row = 0; row < shape.length; row++) {
+            for (int col = 0; col < shape[row].length; col++) {
+                if (shape[row][col] != 0) result[col] = row;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Packs a rotation and a column into a placement.
+     *
+     * @param rotation The rotation.
+     * @param x        The column of the left edge of the block.
+     * @return The placement.
+     */
+    public static int placement(int rotation, int x) {
+        return rotation << 8 | x;
+    }
+
+    public static int rotationOf(int placement) { return placement >>> 8; }
+    public static int xOf(int placement) { return placement & 0xFF; }
+
+    /**
+     * Calculates the row a block lands on when it is dropped straight down from above the board.
+     *
+     * @param rotation      The rotation of the block.
+     * @param x             The column of the left edge of the block.
+     * @param columnHeights For every column of the board, the number of rows from the floor up to and including
+     *                      its highest filled cell, 0 for an empty column.
+     * @param boardHeight   The height of the board.
+     * @return The row of the top edge of the landed block.
+     */
+    public int landingRow(int rotation, int x, int[] columnHeights, int boardHeight) {
+        int[] bottom = bottoms[rotation];
+        int y = Integer.MAX_VALUE;
+        for (int col = 0; col < bottom.length; col++) {
+            if (bottom[col] >= 0) {
+                y = Math.min(y, boardHeight - columnHeights[x + col] - bottom[col] - 1);
+            }
+        }
+        return y;
+    }
+
+    public int[][] getShape(int rotation) { return shapes[rotation]; }
+    public int[] getMasks(int rotation) { return masks[rotation]; }
+    public int getHeight(int rotation) { return shapes[rotation].length; }
+    public int getWidth(int rotation) { return shapes[rotation][0].length; }
+    public int getCanonicalRotation(int rotation) { return canonicalRotations[rotation]; }
+
+    /**
+     * Returns the distinct placements of the block on a board of the given width.
+     *
+     * @param boardWidth The width of the board.
+     * @return The placements, as packed by {@link #placement(int, int)}, grouped by rotation.
+     */
+    public int[] getPlacements(int boardWidth) {
+        int[] result = placements.get(boardWidth);
+        if (result == null) {
+            result = listPlacements(boardWidth);
+            placements.set(boardWidth, result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,44 @@
+package tetris;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Deals the blocks from shuffled bags that contain every shape the same number of times,
+ * so no shape is missing for longer than two bags.
+ */
+class BagRandomizer implements Randomizer {
+    private final Random random;
+    private final int copies;
+    private final ArrayList<Supplier<TetrisBlock>> shuffled = new ArrayList<>();
+
+    /**
+     * Constructs a bag randomizer.
+     *
+     * @param random The source of the order of the blocks in a bag.
+     * @param copies How many times every shape is in a bag.
+     */
+    BagRandomizer(Random random, int copies) {
+        this.random = random;
+        this.copies = copies;
+    }
+
+    @Override
+    public void fill(List<TetrisBlock> bag) {
+        shuffled.clear();
+        for (int copy = 0; copy < copies; copy++) {
+            shuffled.addAll(SHAPES);
+        }
+        Collections.shuffle(shuffled, random);
+        // a shape can be in the bag twice, so every block gets an instance of its own
+        for (Supplier<TetrisBlock> shape : shuffled) {
+            bag.add(shape.get());
+        }
+    }
+
+    @Override
+    public int getKind() { return copies == 1 ? BAG : DOUBLE_BAG; }
+}
@@ -0,0 +1,225 @@
+package tetris;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the bots by playing many seeded headless games in parallel.
+ * Game {@code i} of every bot mode is played with the seed {@code seed + i}, so all modes see the same block sequences.
+ * The games are spread over a work-stealing {@link ForkJoinPool} using all available cores.
+ * The blocks are dealt by the {@link Randomizer} selected with {@value Randomizer#RANDOMIZER_PROPERTY},
+ * a bag of every block by default. From the command line, the games are played on boards of the size selected with
+ * {@value #BOARD_PROPERTY}, so the bots can be compared on wells larger than the one of the game screens.
+ */
+public class BatchEvaluator {
+    /**
+     * The system property selecting the size of the boards of the command line, given as {@code <width>x<height>}
+     * like {@code 10x20}. Boards have the default size when it is not set.
+     */
+    public static final String BOARD_PROPERTY = "tetris.board";
+    private final int games;
+    private final long seed;
+    private final int maxBlocks;
+    private final int width;
+    private final int height;
+    private final int randomizer = Randomizer.selectedKind();
+    private final ForkJoinPool pool;
+
+    /**
+     * The outcome of one game.
+     *
+     * @param lines  The number of lines cleared.
+     * @param blocks The number of blocks placed before the game was lost or stopped.
+     */
+    public record GameResult(int lines, int blocks) {
+    }
+
+    /**
+     * The outcome of all games of one bot mode.
+     *
+     * @param mode    The bot mode.
+     * @param results The results of the single games, in seed order.
+     * @param nanos   The wall-clock time spent playing the games.
+     */
+    public record Report(int mode, GameResult[] results, long nanos) {
+
+        /**
+         * Returns the number of games played per second of wall-clock time.
+         *
+         * @return The throughput in games per second.
+         */
+        public double gamesPerSecond() {
+            return results.length / (nanos / 1e9);
+        }
+
+        /**
+         * Formats the statistics of the cleared lines and the placed blocks.
+         *
+         * @return A human-readable summary of the report.
+         */
+        @Override
+        public String toString() {
+            int[] lines = Arrays.stream(results).mapToInt(GameResult::lines).sorted().toArray();
+            int[] blocks = Arrays.stream(results).mapToInt(GameResult::blocks).sorted().toArray();
+            return String.format("Mode %d: %d games in %.2f s (%.1f games/s)%n", mode, results.length, nanos / 1e9, gamesPerSecond())
+                    + String.format("  lines cleared:  mean %.2f, median %d, p99 %d%n", mean(lines), percentile(lines, 50), percentile(lines, 99))
+                    + String.format("  blocks placed:  mean %.2f, median %d, p99 %d", mean(blocks), percentile(blocks, 50), percentile(blocks, 99));
+        }
+    }
+
+    /**
+     * Constructs an evaluator.
+     *
+     * @param games       The number of games played per bot mode.
+     * @param seed        The seed of the first game.
+     * @param maxBlocks   The number of blocks after which a game that is not lost yet is stopped.
+     * @param parallelism The number of worker threads.
+     */
+    public BatchEvaluator(int games, long seed, int maxBlocks, int parallelism) {
+        this(games, seed, maxBlocks, parallelism, Board.DEFAULT_WIDTH, Board.DEFAULT_HEIGHT);
+    }
+
+    /**
+     * Constructs an evaluator playing on boards of the given size.
+     *
+     * @param games       The number of games played per bot mode.
+     * @param seed        The seed of the first game.
+     * @param maxBlocks   The number of blocks after which a game that is not lost yet is stopped.
+     * @param parallelism The number of worker threads.
+     * @param width       The number of columns of the boards.
+     * @param height      The number of rows of the boards.
+     * @throws IllegalArgumentException If the boards are too small or too large.
+     */
+    public BatchEvaluator(int games, long seed, int maxBlocks, int parallelism, int width, int height) {
+        Board.checkSize(width, height);
+        this.games = games;
+        this.seed = seed;
+        this.maxBlocks = maxBlocks;
+        this.width = width;
+        this.height = height;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Plays all games of a bot mode.
+     *
+     * @param mode The bot mode, see {@link BotThread#BotThread(GameArea, int)}.
+     * @return The report of the games.
+     */
+    public Report evaluate(int mode) throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        GameResult[] results = pool.submit(() -> IntStream.range(0, games)
+                .parallel()
+                .mapToObj(game -> play(mode, seed + game))
+                .toArray(GameResult[]::new)).get();
+        return new Report(mode, results, System.nanoTime() - start);
+    }
+
+    /**
+     * Plays a single headless game without any pauses, with the weights selected with
+     * {@value WeightProfile#PROFILE_PROPERTY}.
+     *
+     * @param mode The bot mode.
+     * @param seed The seed of the game.
+     * @return The result of the game.
+     */
+    public GameResult play(int mode, long seed) {
+        return play(mode, seed, WeightProfile.selected());
+    }
+
+    /**
+     * Plays a single headless game without any pauses. Can be called by any thread. The bot with beam search has no
+     * time budget, so the result only depends on the seed and not on how busy the cores are.
+     *
+     * @param mode    The bot mode.
+     * @param seed    The seed of the game.
+     * @param profile The weights the bot rates fields by.
+     * @return The result of the game.
+     */
+    public GameResult play(int mode, long seed, WeightProfile profile) {
+        Random random = new Random(seed);
+        GameEngine engine = new GameEngine(Randomizer.create(randomizer, random), random, width, height);
+        engine.setTickPolicy(TickPolicy.UNTHROTTLED);
+        engine.setWeightProfile(profile);
+        engine.setLookahead(GameEngine.LOOKAHEAD_DEPTH, GameEngine.BEAM_WIDTH, 0);
+        int blocks = 0;
+        try {
+            while (blocks < maxBlocks && engine.playBotBlock(mode)) {
+                blocks++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new GameResult(engine.getScore(), blocks);
+    }
+
+    /**
+     * Shuts the worker threads down.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static double mean(int[] values) {
+        return Arrays.stream(values).average().orElse(0);
+    }
+
+    /**
+     * Returns the nearest-rank percentile of sorted values.
+     *
+     * @param sorted     The values in ascending order.
+     * @param percentile The percentile between 0 and 100.
+     * @return The value at the percentile, or 0 if there are no values.
+     */
+    private static int percentile(int[] sorted, int percentile) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Reads the size of the boards from {@value #BOARD_PROPERTY}.
+     *
+     * @return The width and the height, the default size if the property is not set.
+     * @throws IllegalArgumentException If the property is not a size.
+     */
+    static int[] selectedSize() {
+        String size = System.getProperty(BOARD_PROPERTY);
+        if (size == null) return new int[]{Board.DEFAULT_WIDTH, Board.DEFAULT_HEIGHT};
+        String[] parts = size.trim().toLowerCase().split("x");
+        try {
+            if (parts.length == 2) return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException(BOARD_PROPERTY + " must be given as <width>x<height>: " + size);
+    }
+
+    /**
+     * Runs the evaluation from the command line.
+     * Usage: {@code java [-Dtetris.board=<width>x<height>] tetris.BatchEvaluator [games] [seed] [maxBlocks] [modes...]},
+     * by default 1000 games from seed 0 with at most 10000 blocks for the modes 1 to 6.
+     *
+     * @param args Command line arguments as described above.
+     */
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        int maxBlocks = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        int[] modes = args.length > 3
+                ? Arrays.stream(args, 3, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 2, 3, 4, 5, 6};
+        int[] size = selectedSize();
+        BatchEvaluator evaluator = new BatchEvaluator(games, seed, maxBlocks, Runtime.getRuntime().availableProcessors(),
+                size[0], size[1]);
+        try {
+            for (int mode : modes) {
+                System.out.println(evaluator.evaluate(mode));
+            }
+        } finally {
+            evaluator.shutdown();
+        }
+    }
+}
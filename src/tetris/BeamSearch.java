@@ -0,0 +1,264 @@
+package tetris;
+
+import blocks.PlacementTable;
+
+/**
+ * Finds the best move for the bot by looking several blocks ahead.
+ * <p>
+ * Every ply places one block of the upcoming sequence in all its distinct placements, clears the filled lines and rates the
+ * resulting fields. Only the {@code beamWidth} best fields of a ply are expanded further, so the cost grows linearly
+ * with the depth instead of exponentially. Before the beam starts, a greedy dive down the best child of every ply gives
+ * a lower bound, and fields that cannot beat it even if all their remaining cells were cleared as lines are pruned,
+ * as long as the {@link WeightProfile} the fields are rated by only rewards completed lines.
+ * Fields that were already reached in the same ply with the same number of cleared lines are transpositions with
+ * the same future, so they are looked up in a {@link TranspositionTable} and only expanded once.
+ * When the time budget runs out the best move found so far is returned.
+ * <p>
+ * All nodes live in preallocated arrays sized for boards of one size, so a search does not allocate.
+ * An instance is not thread-safe.
+ */
+class BeamSearch {
+    private final int width;
+    private final int height;
+    private final WeightProfile profile;
+    private final int depth;
+    private final int beamWidth;
+    private final long budgetNanos;
+    // nodes of the current ply and of the ply being expanded
+    private final long[][] boards, childBoards;
+    private final FieldStats[] boardStats, childStats;
+    private final int[] firstMoves, childFirstMoves;
+    private final int[] lines, childLines;
+    private final int[] childScores;
+    private final long[] order;
+    private final long[] greedyBoard;
+    private final long[] scratch;
+    private final FieldStats greedyStats;
+    private final FieldStats scratchStats;
+    private final TranspositionTable seen = new TranspositionTable(1 << 14);
+    // stamps the entries of the table with the search that stored them
+    private int generation;
+    private int candidates;
+
+    /**
+     * Constructs a beam search.
+     *
+     * @param width        The width of the board.
+     * @param height       The height of the board.
+     * @param profile      The weights the fields are rated by.
+     * @param depth        The number of blocks placed in the search, including the current one. At least 1.
+     * @param beamWidth    The number of fields kept after every ply. At least 1.
+     * @param budgetMicros The time budget of one search in microseconds, 0 for no limit.
+     */
+    BeamSearch(int width, int height, WeightProfile profile, int depth, int beamWidth, long budgetMicros) {
+        if (depth < 1 || beamWidth < 1) {
+            throw new IllegalArgumentException("Depth and beam width must be positive: " + depth + ", " + beamWidth);
+        }
+        this.width = width;
+        this.height = height;
+        this.profile = profile;
+        this.depth = depth;
+        this.beamWidth = beamWidth;
+        this.budgetNanos = budgetMicros * 1000;
+        int children = beamWidth * PlacementTable.maxPlacements(width);
+        boards = new long[beamWidth][height];
+        childBoards = new long[children][height];
+        boardStats = new FieldStats[beamWidth];
+        childStats = new FieldStats[children];
+        for (int i = 0; i < beamWidth; i++) {
+            boardStats[i] = new FieldStats(width, height);
+        }
+        for (int i = 0; i < children; i++) {
+            childStats[i] = new FieldStats(width, height);
+        }
+        greedyBoard = new long[height];
+        scratch = new long[height];
+        greedyStats = new FieldStats(width, height);
+        scratchStats = new FieldStats(width, height);
+        firstMoves = new int[beamWidth];
+        childFirstMoves = new int[children];
+        lines = new int[beamWidth];
+        childLines = new int[children];
+        childScores = new int[children];
+        order = new long[children];
+    }
+
+    /**
+     * Finds the best move for the current block.
+     *
+     * @param rows     The row masks of the current field.
+     * @param stats    The statistics of the current field.
+     * @param block    The block to be placed, at its current position.
+     * @param upcoming The blocks spawned after the current one, at least {@code depth - 1} of them.
+     * @return The best placement for the current block, as packed by {@link PlacementTable#placement(int, int)}.
+     */
+    int findBestMove(long[] rows, FieldStats stats, TetrisBlock block, TetrisBlock[] upcoming) {
+        long deadline = budgetNanos > 0 ? System.nanoTime() + budgetNanos : Long.MAX_VALUE;
+        generation++;
+        candidates = block.getTable().getPlacements(width).length;
+        // greedy dive for a first lower bound and a fallback move
+        int bestMove = 0;
+        int bestScore = Integer.MIN_VALUE;
+        System.arraycopy(rows, 0, greedyBoard, 0, height);
+        greedyStats.copyFrom(stats);
+        int greedyLines = 0;
+        for (int ply = 0; ply < depth; ply++) {
+            int[] placements = blockOf(block, upcoming, ply).getTable().getPlacements(width);
+            int plyBestScore = Integer.MIN_VALUE;
+            int plyBestMove = placements[0];
+            for (int placement : placements) {
+                int cleared = place(greedyBoard, greedyStats, block, upcoming, ply, placement, scratch, scratchStats);
+                int score = rate(scratch, scratchStats, greedyLines + cleared);
+                if (score > plyBestScore) {
+                    plyBestScore = score;
+                    plyBestMove = placement;
+                }
+            }
+            greedyLines += place(greedyBoard, greedyStats, block, upcoming, ply, plyBestMove, greedyBoard, greedyStats);
+            if (ply == 0) bestMove = plyBestMove;
+            bestScore = plyBestScore;
+        }
+
+        // beam
+        System.arraycopy(rows, 0, boards[0], 0, height);
+        boardStats[0].copyFrom(stats);
+        lines[0] = 0;
+        int nodes = 1;
+        for (int ply = 0; ply < depth; ply++) {
+            int remaining = depth - ply - 1;
+            int[] placements = blockOf(block, upcoming, ply).getTable().getPlacements(width);
+            int children = 0;
+            for (int node = 0; node < nodes; node++) {
+                if (System.nanoTime() > deadline) return bestMove;
+                for (int placement : placements) {
+                    long[] child = childBoards[children];
+                    FieldStats childStat = childStats[children];
+                    int childLineCount = lines[node] + place(boards[node], boardStats[node], block, upcoming, ply, placement,
+                            child, childStat);
+                    // prune fields that cannot beat the best complete line even in the best case
+                    if (upperBound(childStat, childLineCount, remaining) <= bestScore) continue;
+                    // skip transpositions of fields generated before in this ply
+                    long key = TranspositionTable.hash(child) ^ (ply + 1L) * 0x9E3779B97F4A7C15L ^ (long) childLineCount << 48;
+                    if (seen.get(key) == generation) continue;
+                    seen.put(key, generation);
+                    childScores[children] = rate(child, childStat, childLineCount);
+                    childLines[children] = childLineCount;
+                    childFirstMoves[children] = ply == 0 ? placement : firstMoves[node];
+                    order[children] = ((long) -childScores[children] << 32) | children;
+                    children++;
+                }
+            }
+            if (children == 0) break;
+            // best scores first, ties in generation order
+            nodes = remaining == 0 ? 1 : Math.min(children, beamWidth);
+            selectSmallest(order, children, nodes);
+            if (remaining == 0) {
+                int best = (int) order[0];
+                if (childScores[best] > bestScore) {
+                    bestMove = childFirstMoves[best];
+                }
+                break;
+            }
+            for (int i = 0; i < nodes; i++) {
+                int child = (int) order[i];
+                System.arraycopy(childBoards[child], 0, boards[i], 0, height);
+                boardStats[i].copyFrom(childStats[child]);
+                lines[i] = childLines[child];
+                firstMoves[i] = childFirstMoves[child];
+            }
+        }
+        return bestMove;
+    }
+
+    // the number of placements of the current block the last search chose from
+    int getCandidates() { return candidates; }
+
+    /**
+     * Moves the smallest values of an array to its front in ascending order. The values are heapified and the
+     * smallest ones popped off the heap, so unlike {@link java.util.Arrays#sort(long[], int, int)}, which allocates
+     * when it merges presorted runs, this does not allocate and does not sort the values that are not selected.
+     *
+     * @param values The values, their order is changed.
+     * @param count  The number of values at the start of the array to select from.
+     * @param k      The number of smallest values to select, at most {@code count}.
+     */
+    private static void selectSmallest(long[] values, int count, int k) {
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(values, i, count);
+        }
+        for (int end = count - 1; end >= count - k; end--) {
+            long smallest = values[0];
+            values[0] = values[end];
+            values[end] = smallest;
+            siftDown(values, 0, end);
+        }
+        // the selected values are at the end in descending order
+        for (int i = count - k, j = count - 1; i < j; i++, j--) {
+            long swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        System.arraycopy(values, count - k, values, 0, k);
+    }
+
+    /**
+     * Restores the min-heap order below a node of a heap.
+     */
+    private static void siftDown(long[] heap, int node, int size) {
+        long value = heap[node];
+        int child;
+        while ((child = 2 * node + 1) < size) {
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= value) break;
+            heap[node] = heap[child];
+            node = child;
+        }
+        heap[node] = value;
+    }
+
+    /**
+     * Returns the block placed in a ply.
+     */
+    private static TetrisBlock blockOf(TetrisBlock block, TetrisBlock[] upcoming, int ply) {
+        return ply == 0 ? block : upcoming[ply - 1];
+    }
+
+    /**
+     * Places the block of a ply on a field and clears the filled lines.
+     * The result may be the field itself.
+     *
+     * @return The number of cleared lines.
+     */
+    private int place(long[] rows, FieldStats stats, TetrisBlock block, TetrisBlock[] upcoming, int ply,
+                      int placement, long[] result, FieldStats resultStats) {
+        TetrisBlock placed = blockOf(block, upcoming, ply);
+        int landing = ply == 0
+                ? MoveSearch.land(rows, width, stats.getHeights(), block, block.getX(), block.getY(),
+                block.getCurrentRotation(), placement)
+                : MoveSearch.land(rows, width, stats.getHeights(), placed, placed.getSpawnX(width), TetrisBlock.SPAWN_Y,
+                TetrisBlock.SPAWN_ROTATION, placement);
+        System.arraycopy(rows, 0, result, 0, height);
+        resultStats.copyFrom(stats);
+        resultStats.place(result, placed.getMasks(MoveSearch.rotationOf(landing)), MoveSearch.xOf(landing),
+                MoveSearch.yOf(landing));
+        return resultStats.clearFullRows(result);
+    }
+
+    /**
+     * Rates a field after its filled lines were cleared, adding the lines cleared on the way to it.
+     */
+    private int rate(long[] rows, FieldStats stats, int clearedLines) {
+        return profile.lines() * clearedLines + stats.rate(profile, rows);
+    }
+
+    /**
+     * Calculates the best score any field reachable from the given one could have,
+     * assuming every remaining block only fills lines that are then cleared.
+     * There is no such bound if the profile rewards other features than lines.
+     */
+    private int upperBound(FieldStats stats, int clearedLines, int remainingBlocks) {
+        if (!profile.isBoundedByLines()) return Integer.MAX_VALUE;
+        int cells = remainingBlocks * 5 + stats.getCells();
+        return profile.lines() * (clearedLines + cells / width);
+    }
+}
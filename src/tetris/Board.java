@@ -0,0 +1,305 @@
+package tetris;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Represents the well of the Tetris game as a bitboard.
+ * Every row is stored as a bit mask in which bit {@code col} is set when the cell is occupied. The size of the board is
+ * chosen when it is constructed; as a row is a {@code long}, a board can be up to {@value #MAX_WIDTH} columns wide.
+ * The colors of the settled cells are kept in a separate array that is only used for rendering. A row of colors is
+ * never changed once it was handed out by {@link #snapshotColors()}; it is replaced by a changed copy instead.
+ * The column heights, row fill counts and holes the bots rate the board by are kept up to date in {@link FieldStats}.
+ */
+public class Board {
+    /**
+     * The width of the well of the game screens.
+     */
+    public static final int DEFAULT_WIDTH = 5;
+    /**
+     * The height of the well of the game screens.
+     */
+    public static final int DEFAULT_HEIGHT = 15;
+    /**
+     * The smallest width and height of a board, the length of the longest pentomino.
+     */
+    public static final int MIN_SIZE = 5;
+    /**
+     * The largest width of a board, the number of bits of the {@code long} a row is stored in.
+     */
+    public static final int MAX_WIDTH = Long.SIZE;
+    /**
+     * The largest height of a board, as the bots pack the row a block lands on into a {@code short}.
+     */
+    public static final int MAX_HEIGHT = Short.MAX_VALUE;
+    private final int width;
+    private final int height;
+    private final long fullRow;
+    private final long[] rows;
+    private final Color[][] colors;
+    // the rows of colors that were handed out by snapshotColors() and have to be copied before they change
+    private final boolean[] sharedRows;
+    private final FieldStats stats;
+
+    /**
+     * Constructs an empty board of the default size.
+     */
+    public Board() {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    /**
+     * Constructs an empty board.
+     *
+     * @param width  The number of columns, from {@value #MIN_SIZE} to {@value #MAX_WIDTH}.
+     * @param height The number of rows, from {@value #MIN_SIZE} to {@value #MAX_HEIGHT}.
+     * @throws IllegalArgumentException If the board is too small or too large.
+     */
+    public Board(int width, int height) {
+        checkSize(width, height);
+        this.width = width;
+        this.height = height;
+        this.fullRow = fullRow(width);
+        rows = new long[height];
+        colors = new Color[height][width];
+        sharedRows = new boolean[height];
+        stats = new FieldStats(width, height);
+    }
+
+    /**
+     * Checks that a board of the given size can be played on.
+     *
+     * @param width  The number of columns.
+     * @param height The number of rows.
+     * @throws IllegalArgumentException If the board is too small or too large.
+     */
+    public static void checkSize(int width, int height) {
+        if (width < MIN_SIZE || height < MIN_SIZE) {
+            throw new IllegalArgumentException("A board must be at least " + MIN_SIZE + "x" + MIN_SIZE + ": "
+                    + width + "x" + height);
+        }
+        if (width > MAX_WIDTH) {
+            throw new IllegalArgumentException("A board can be at most " + MAX_WIDTH + " columns wide: " + width);
+        }
+        if (height > MAX_HEIGHT) {
+            throw new IllegalArgumentException("A board can be at most " + MAX_HEIGHT + " rows high: " + height);
+        }
+    }
+
+    /**
+     * Returns the mask of a full row.
+     *
+     * @param width The width of the board.
+     * @return The mask with the lowest {@code width} bits set.
+     */
+    public static long fullRow(int width) {
+        return width == Long.SIZE ? -1L : (1L << width) - 1;
+    }
+
+    /**
+     * Checks if a shape given as row masks collides with the walls, the floor or the given rows.
+     * Rows of the shape that are above the board are only checked against the walls.
+     *
+     * @param rows  The row masks of the board to check against, one per row of the board.
+     * @param width The width of the board.
+     * @param masks The row masks of the shape.
+     * @param x     The column of the left edge of the shape.
+     * @param y     The row of the top edge of the shape.
+     * @return true if the shape collides, otherwise false.
+     */
+    public static boolean collides(long[] rows, int width, int[] masks, int x, int y) {
+        for (int r = 0; r < masks.length; r++) {
+            int mask = masks[r];
+            long shifted;
+            if (x < 0) {
+                if ((mask & ((1 << -x) - 1)) != 0) return true;
+                shifted = mask >>> -x;
+            } else {
+                if (x + Integer.SIZE - Integer.numberOfLeadingZeros(mask) > width) return true;
+                shifted = (long) mask << x;
+            }
+            int row = y + r;
+            if (row >= rows.length) return true;
+            if (row >= 0 && (rows[row] & shifted) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a shape given as row masks to the given rows. Cells above the board are discarded.
+     *
+     * @param rows  The row masks of the board to modify.
+     * @param masks The row masks of the shape.
+     * @param x     The column of the left edge of the shape.
+     * @param y     The row of the top edge of the shape.
+     */
+    public static void place(long[] rows, int[] masks, int x, int y) {
+        for (int r = 0; r < masks.length; r++) {
+            int row = y + r;
+            if (row >= 0) rows[row] |= (long) masks[r] << x;
+        }
+    }
+
+    /**
+     * Removes all full rows from the given rows, shifting the rows above them down.
+     *
+     * @param rows  The row masks of the board to modify.
+     * @param width The width of the board.
+     * @return The number of removed rows.
+     */
+    public static int clearFullRows(long[] rows, int width) {
+        long full = fullRow(width);
+        int write = rows.length - 1;
+        for (int read = rows.length - 1; read >= 0; read--) {
+            if (rows[read] != full) {
+                rows[write--] = rows[read];
+            }
+        }
+        int cleared = write + 1;
+        for (int row = 0; row < cleared; row++) {
+            rows[row] = 0;
+        }
+        return cleared;
+    }
+
+    /**
+     * Checks if a shape collides with the settled cells of this board.
+     *
+     * @param masks The row masks of the shape.
+     * @param x     The column of the left edge of the shape.
+     * @param y     The row of the top edge of the shape.
+     * @return true if the shape collides, otherwise false.
+     */
+    public boolean collides(int[] masks, int x, int y) {
+        return collides(rows, width, masks, x, y);
+    }
+
+    /**
+     * Settles a shape on the board, remembering its color for rendering.
+     *
+     * @param masks The row masks of the shape.
+     * @param x     The column of the left edge of the shape.
+     * @param y     The row of the top edge of the shape.
+     * @param color The color of the shape.
+     */
+    public void place(int[] masks, int x, int y, Color color) {
+        stats.place(rows, masks, x, y);
+        for (int r = 0; r < masks.length; r++) {
+            int row = y + r;
+            if (row < 0) continue;
+            Color[] rowColors = writableRow(row);
+            long cells = (long) masks[r] << x;
+            while (cells != 0) {
+                rowColors[Long.numberOfTrailingZeros(cells)] = color;
+                cells &= cells - 1;
+            }
+        }
+    }
+
+    /**
+     * Checks if the given row is completely filled.
+     *
+     * @param row The row to check.
+     * @return true if the row is full, otherwise false.
+     */
+    public boolean isRowFull(int row) {
+        return rows[row] == fullRow;
+    }
+
+    /**
+     * Checks if any row is completely filled.
+     *
+     * @return true if there is a full row, otherwise false.
+     */
+    public boolean hasFullRows() {
+        return stats.getFullRows() > 0;
+    }
+
+    /**
+     * Removes a row and shifts all rows above it one row down.
+     *
+     * @param r The row to remove.
+     */
+    public void shiftDown(int r) {
+        System.arraycopy(rows, 0, rows, 1, r);
+        rows[0] = 0;
+        stats.shiftDown(rows, r);
+        Color[] removed = colors[r];
+        boolean removedShared = sharedRows[r];
+        System.arraycopy(colors, 0, colors, 1, r);
+        System.arraycopy(sharedRows, 0, sharedRows, 1, r);
+        if (removedShared) {
+            colors[0] = new Color[width];
+        } else {
+            Arrays.fill(removed, null);
+            colors[0] = removed;
+        }
+        sharedRows[0] = false;
+    }
+
+    /**
+     * Removes all settled cells from the board.
+     */
+    public void clear() {
+        Arrays.fill(rows, 0);
+        stats.reset();
+        for (int row = 0; row < height; row++) {
+            Arrays.fill(writableRow(row), null);
+        }
+    }
+
+    /**
+     * Replaces the settled cells of this board.
+     *
+     * @param src   The row masks to load, at least {@link #getHeight()} long.
+     * @param color The color given to all loaded cells.
+     */
+    void load(long[] src, Color color) {
+        System.arraycopy(src, 0, rows, 0, height);
+        stats.compute(rows);
+        for (int row = 0; row < height; row++) {
+            Color[] rowColors = writableRow(row);
+            for (int col = 0; col < width; col++) {
+                rowColors[col] = (rows[row] & 1L << col) != 0 ? color : null;
+            }
+        }
+    }
+
+    /**
+     * Returns a row of colors that may be changed, replacing it by a copy first if it was handed out.
+     */
+    private Color[] writableRow(int row) {
+        if (sharedRows[row]) {
+            colors[row] = colors[row].clone();
+            sharedRows[row] = false;
+        }
+        return colors[row];
+    }
+
+    /**
+     * Returns the colors of the settled cells that stay unchanged while the board goes on changing.
+     * Only the array of rows is copied; the rows themselves are shared until the board changes them.
+     *
+     * @return The colors by row and column, null for an empty cell. Must not be modified.
+     */
+    public Color[][] snapshotColors() {
+        Arrays.fill(sharedRows, true);
+        return colors.clone();
+    }
+
+    /**
+     * Copies the row masks of this board into the given array.
+     *
+     * @param dst The array to copy into, at least {@link #getHeight()} long.
+     */
+    public void copyRowsTo(long[] dst) {
+        System.arraycopy(rows, 0, dst, 0, height);
+    }
+
+    public long[] getRows() { return rows; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public long getFullRow() { return fullRow; }
+    FieldStats getStats() { return stats; }
+    public Color getColor(int row, int col) { return colors[row][col]; }
+}
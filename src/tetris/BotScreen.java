@@ -7,22 +7,33 @@ import javax.swing.*;
  * This class sets up the game area for the bot and starts the bot's gameplay thread.
  */
 public class BotScreen extends JFrame {
+    /**
+     * Constructs and initializes the bot gameplay screen with the bot playing in real time.
+     *
+     * @param mode A code of the bot algorithm to be used.
+     * @param darkMode A boolean value to set the game in dark mode if true.
+     */
+    public BotScreen(int mode, boolean darkMode) {
+        this(mode, darkMode, TickPolicy.REAL_TIME);
+    }
+
     /**
      * Constructs and initializes the bot gameplay screen.
      * Sets up the game area and starts the bot thread to play the game.
      *
      * @param mode A code of the bot algorithm to be used.
      * @param darkMode A boolean value to set the game in dark mode if true.
+     * @param tickPolicy The policy pacing the bot and deciding how often the game is rendered.
      */
-    public BotScreen(int mode, boolean darkMode) {
-        GameArea ga = new GameArea(darkMode, false);
+    public BotScreen(int mode, boolean darkMode, TickPolicy tickPolicy) {
+        GameArea ga = new GameArea(new GameEngine(false), darkMode);
         this.add(ga);
         this.pack();
         this.setLocationRelativeTo(null);
         this.setResizable(false);
         this.setVisible(true);
         // Start the bot thread
-        BotThread botThread = new BotThread(ga, mode);
+        BotThread botThread = new BotThread(ga, mode, tickPolicy);
         botThread.start();
         // Set the default close operation to do nothing
         setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
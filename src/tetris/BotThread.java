@@ -1,6 +1,6 @@
 package tetris;
 
-import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class represents an automated bot thread for playing Tetris.
@@ -8,22 +8,40 @@ import java.util.Random;
  */
 public class BotThread extends Thread {
     private final GameArea ga;
+    private final GameEngine engine;
     private final int mode;
-    final int pause = 500;
+    private final TickPolicy tickPolicy;
 
     /**
-     * Creates a bot thread to automate moves in the Tetris game.
+     * Creates a bot thread to automate moves in the Tetris game, pacing the moves in real time.
      *
-     * @param ga   The game area where the bot will operate.
+     * @param ga   The game area whose engine the bot will operate on.
      * @param mode The mode of operation which decides the bot's behavior.
      *             Mode 1: Random moves.
      *             Mode 2: Automated moves using heuristic algorithm.
      *             Mode 3: Automated moves using heuristic algorithm with knowledge of the next move.
+     *             Mode 4: Automated moves using heuristic algorithm with beam search over the upcoming moves.
+     *             Mode 5: Automated moves using heuristic algorithm with knowledge of the next move, choosing from every
+     *             reachable position including tucks under overhangs.
+     *             Mode 6: Like mode 5, but clearing the whole board with the upcoming moves whenever the stack is low
+     *             and they can.
      */
-
     public BotThread(GameArea ga, int mode) {
+        this(ga, mode, TickPolicy.REAL_TIME);
+    }
+
+    /**
+     * Creates a bot thread to automate moves in the Tetris game.
+     *
+     * @param ga         The game area whose engine the bot will operate on.
+     * @param mode       The mode of operation which decides the bot's behavior, see {@link #BotThread(GameArea, int)}.
+     * @param tickPolicy The policy pacing the moves of the bot and deciding how often the game is rendered.
+     */
+    public BotThread(GameArea ga, int mode, TickPolicy tickPolicy) {
         this.ga = ga;
+        this.engine = ga.getEngine();
         this.mode = mode;
+        this.tickPolicy = tickPolicy;
     }
 
     /**
@@ -32,50 +50,29 @@ public class BotThread extends Thread {
      */
     @Override
     public void run() {
+        engine.setTickPolicy(tickPolicy);
+        // a single interactive bot has the spare cores to fan its lookahead out
+        engine.setSearchPool(ForkJoinPool.commonPool());
+        if (!tickPolicy.isLive()) {
+            // render only sampled frames and play no sounds
+            engine.setListener(null);
+        }
+        long placedBlocks = 0;
         try {
-            System.out.println(mode);
+            Log.info("Bot started in mode " + mode);
             while (!Thread.currentThread().isInterrupted()) {
-                ga.spawnBlock();
-                while (ga.moveBlockDown()) {
-                    if (mode == 1) {
-                        randomMove();
-                    }
-                    if (mode == 2) {
-                        ga.automatedBotMove();
-                    } else if (mode == 3) {
-                        ga.automatedBotMove2();
-                    }
-                    Thread.sleep(pause);
-                    ga.dropBlock();
-                }
-                if (ga.isBlockOnTop()) {
+                if (!engine.playBotBlock(mode)) {
                     ga.gameOver(false);
                     continue;
                 }
-                ga.moveBlockToBackground();
-                ga.clearLine();
+                placedBlocks++;
+                if (!tickPolicy.isLive() && tickPolicy.shouldRender(placedBlocks)) {
+                    engine.publishSnapshot();
+                    ga.render();
+                }
             }
         } catch (InterruptedException e) {
             // The thread was interrupted, so stop the thread
         }
     }
-
-    /**
-     * Executes a random move for the Tetris game.
-     * The move could be either a left move, a right move, or a rotation.
-     */
-    private void randomMove() throws InterruptedException {
-        Random random = new Random();
-        for (int i = 0; i < 3; i++) {
-            int move = random.nextInt(3);
-            Thread.sleep(200);
-            if (move == 0) {
-                ga.moveBlockLeft();
-            } else if (move == 1) {
-                ga.moveBlockRight();
-            } else {
-                ga.rotateBlock();
-            }
-        }
-    }
 }
@@ -0,0 +1,162 @@
+package tetris;
+
+import javax.sound.sampled.*;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Plays sounds from a bounded pool of reusable clips on a dedicated mixer thread.
+ * <p>
+ * The mixer thread decodes every sound file of the asset directory once when it starts. Each sound gets up to
+ * {@value #CLIPS_PER_SOUND} clips, which are opened when they are first needed and rewound instead of reopened,
+ * so the same sound can overlap itself a few times. When all clips of a sound are playing, the one started earliest
+ * is restarted. Requests are handed to the mixer thread through a bounded queue and dropped when the queue is full,
+ * so the game thread never waits for audio I/O.
+ */
+class ClipPool implements SoundBackend {
+    static final int CLIPS_PER_SOUND = 3;
+    private static final int QUEUE_CAPACITY = 16;
+    private final Path directory;
+    private final BlockingQueue<String> requests = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    // only accessed by the mixer thread
+    private final Map<String, Sound> sounds = new HashMap<>();
+    private final Thread mixer;
+    private volatile boolean closed;
+
+    /**
+     * The decoded samples of a sound file and the clips playing them.
+     */
+    private static class Sound {
+        private final AudioFormat format;
+        private final byte[] samples;
+        private final Clip[] clips = new Clip[CLIPS_PER_SOUND];
+        // the clip to restart when all of them are playing
+        private int oldest;
+
+        private Sound(AudioFormat format, byte[] samples) {
+            this.format = format;
+            this.samples = samples;
+        }
+    }
+
+    /**
+     * Constructs a pool and starts its mixer thread.
+     *
+     * @param directory The directory containing the sound files.
+     */
+    ClipPool(Path directory) {
+        this.directory = directory;
+        mixer = new Thread(this::mix, "Sound mixer");
+        mixer.setDaemon(true);
+        mixer.start();
+    }
+
+    @Override
+    public void play(String soundFileName) {
+        if (!closed) requests.offer(soundFileName);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        mixer.interrupt();
+        try {
+            mixer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The loop of the mixer thread: preloads the sounds, plays requested sounds until the pool is closed,
+     * then closes all clips.
+     */
+    private void mix() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.wav")) {
+            for (Path file : files) {
+                load(file.getFileName().toString());
+            }
+        } catch (IOException e) {
+            Log.warn("Error reading the audio files: " + e.getMessage());
+        }
+        try {
+            while (!closed) {
+                String soundFileName = requests.take();
+                Sound sound = sounds.containsKey(soundFileName) ? sounds.get(soundFileName) : load(soundFileName);
+                // give up on sounds that cannot be played instead of failing on every request
+                if (sound != null && !start(sound)) sounds.put(soundFileName, null);
+            }
+        } catch (InterruptedException e) {
+            // closed
+        } finally {
+            for (Sound sound : sounds.values()) {
+                if (sound == null) continue;
+                for (Clip clip : sound.clips) {
+                    if (clip != null) clip.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes a sound file into PCM samples. A file that cannot be decoded is remembered as missing.
+     *
+     * @return The sound, or null if the file cannot be played.
+     */
+    private Sound load(String soundFileName) {
+        Sound sound = null;
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(directory.resolve(soundFileName).toFile())) {
+            AudioFormat format = in.getFormat();
+            AudioInputStream pcm = in;
+            if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED && format.getEncoding() != AudioFormat.Encoding.PCM_UNSIGNED) {
+                format = new AudioFormat(format.getSampleRate(), 16, format.getChannels(), true, false);
+                pcm = AudioSystem.getAudioInputStream(format, in);
+            }
+            sound = new Sound(format, pcm.readAllBytes());
+        } catch (UnsupportedAudioFileException e) {
+            Log.warn("Audio file format not supported: " + e.getMessage());
+        } catch (IOException e) {
+            Log.warn("Error reading the audio file: " + e.getMessage());
+        }
+        sounds.put(soundFileName, sound);
+        return sound;
+    }
+
+    /**
+     * Plays a sound on an idle clip of its pool, opening a new clip if the pool is not full yet
+     * and restarting the oldest clip if all of them are playing.
+     *
+     * @return false if no clip could be opened for the sound.
+     */
+    private boolean start(Sound sound) {
+        int index = -1;
+        for (int i = 0; i < CLIPS_PER_SOUND && index < 0; i++) {
+            if (sound.clips[i] == null || !sound.clips[i].isActive()) index = i;
+        }
+        if (index < 0) {
+            index = sound.oldest;
+            sound.clips[index].stop();
+        }
+        sound.oldest = (index + 1) % CLIPS_PER_SOUND;
+        try {
+            if (sound.clips[index] == null) {
+                Clip clip = AudioSystem.getClip();
+                clip.open(sound.format, sound.samples, 0, sound.samples.length);
+                sound.clips[index] = clip;
+            }
+            Clip clip = sound.clips[index];
+            clip.setFramePosition(0);
+            clip.start();
+            return true;
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            Log.warn("Audio line for playing back is unavailable: " + e.getMessage());
+            return false;
+        }
+    }
+}
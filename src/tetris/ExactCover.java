@@ -0,0 +1,223 @@
+package tetris;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Solves exact cover problems with Knuth's Algorithm X on dancing links.
+ * <p>
+ * A problem is a set of columns and a list of rows, each covering some of the columns. A solution is a set of rows
+ * that covers every primary column exactly once and every secondary column at most once. As in Knuth's algorithm, a row
+ * that covers only secondary columns is never chosen, since rows are only picked to cover a primary column. The matrix
+ * is a grid of doubly linked lists: a row is taken out of the matrix by unlinking its nodes from their columns, and put
+ * back by linking them again in the reverse order, which the links of the removed nodes still remember. The search
+ * always branches on the primary column covered by the fewest rows.
+ * <p>
+ * Solutions are listed lazily: the search is an explicit stack of the chosen rows, which {@link #solutions()} advances
+ * to the next solution whenever the stream asks for one, so finding the first solution does not search for the others.
+ * Every stream searches its own copy of the links, so a problem can be solved again, also while another stream of it
+ * is open. An instance is not thread-safe while rows are added.
+ */
+class ExactCover {
+    private final int primary;
+    private final int columns;
+    private final List<int[]> rows = new ArrayList<>();
+    private int nodes;
+
+    /**
+     * Constructs a problem without rows.
+     *
+     * @param primary   The number of primary columns, numbered from 0.
+     * @param secondary The number of secondary columns, numbered after the primary ones.
+     */
+    ExactCover(int primary, int secondary) {
+        this.primary = primary;
+        this.columns = primary + secondary;
+    }
+
+    /**
+     * Adds a row.
+     *
+     * @param columns The distinct columns the row covers.
+     * @return The index of the row, as listed in the solutions.
+     */
+    int addRow(int... columns) {
+        for (int column : columns) {
+            if (column < 0 || column >= this.columns) throw new IllegalArgumentException("No such column: " + column);
+        }
+        rows.add(columns.clone());
+        nodes += columns.length;
+        return rows.size() - 1;
+    }
+
+    int getRowCount() { return rows.size(); }
+
+    /**
+     * Lists the solutions, searching for each one only when the stream asks for it.
+     *
+     * @return The solutions, each an array of the indices of its rows in ascending order.
+     */
+    Stream<int[]> solutions() {
+        return StreamSupport.stream(new Search(), false);
+    }
+
+    /**
+     * The links of the matrix and the state of one search through it. Node 0 is the root, the nodes 1 to the number
+     * of columns are the headers of the columns, and the nodes of the rows follow.
+     */
+    private class Search extends Spliterators.AbstractSpliterator<int[]> {
+        private final int[] left, right, up, down, column, row;
+        private final int[] sizes;
+        // the node of the row chosen on every level of the search
+        private final int[] chosen;
+        private int depth;
+        private boolean started, exhausted;
+
+        Search() {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT);
+            int size = 1 + columns + nodes;
+            left = new int[size];
+            right = new int[size];
+            up = new int[size];
+            down = new int[size];
+            column = new int[size];
+            row = new int[size];
+            sizes = new int[columns + 1];
+            chosen = new int[primary + 1];
+            // only the primary columns are linked to the root and have to be covered
+            left[0] = primary;
+            right[primary] = 0;
+            for (int header = 1; header <= columns; header++) {
+                up[header] = down[header] = header;
+                if (header <= primary) {
+                    left[header] = header - 1;
+                    right[header - 1] = header;
+                } else {
+                    left[header] = right[header] = header;
+                }
+            }
+            int node = columns + 1;
+            for (int index = 0; index < rows.size(); index++) {
+                int first = node;
+                for (int c : rows.get(index)) {
+                    int header = c + 1;
+                    column[node] = header;
+                    row[node] = index;
+                    // append the node to its column and to its row
+                    up[node] = up[header];
+                    down[node] = header;
+                    down[up[header]] = node;
+                    up[header] = node;
+                    sizes[header]++;
+                    left[node] = node == first ? node : node - 1;
+                    right[node] = first;
+                    right[left[node]] = node;
+                    left[first] = node;
+                    node++;
+                }
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super int[]> action) {
+            if (exhausted) return false;
+            if (started && !backtrack()) return false;
+            started = true;
+            while (right[0] != 0) {
+                int c = fewestRows();
+                cover(c);
+                if (down[c] == c) {
+                    // no row covers the column, so the rows chosen so far lead to no solution
+                    uncover(c);
+                    if (!backtrack()) return false;
+                } else {
+                    choose(down[c]);
+                }
+            }
+            int[] solution = new int[depth];
+            for (int level = 0; level < depth; level++) {
+                solution[level] = row[chosen[level]];
+            }
+            Arrays.sort(solution);
+            action.accept(solution);
+            return true;
+        }
+
+        /**
+         * Chooses a row on the next level and covers the other columns it covers.
+         */
+        private void choose(int node) {
+            chosen[depth++] = node;
+            for (int j = right[node]; j != node; j = right[j]) {
+                cover(column[j]);
+            }
+        }
+
+        /**
+         * Replaces the row chosen on the deepest level that has another one left by the next one, and undoes the
+         * levels below it.
+         *
+         * @return false if every level was exhausted and there are no more solutions.
+         */
+        private boolean backtrack() {
+            while (depth > 0) {
+                int node = chosen[--depth];
+                for (int j = left[node]; j != node; j = left[j]) {
+                    uncover(column[j]);
+                }
+                int c = column[node];
+                if (down[node] != c) {
+                    choose(down[node]);
+                    return true;
+                }
+                uncover(c);
+            }
+            exhausted = true;
+            return false;
+        }
+
+        private int fewestRows() {
+            int best = right[0];
+            for (int c = right[best]; c != 0 && sizes[best] > 0; c = right[c]) {
+                if (sizes[c] < sizes[best]) best = c;
+            }
+            return best;
+        }
+
+        /**
+         * Removes a column and every row covering it from the matrix.
+         */
+        private void cover(int c) {
+            left[right[c]] = left[c];
+            right[left[c]] = right[c];
+            for (int i = down[c]; i != c; i = down[i]) {
+                for (int j = right[i]; j != i; j = right[j]) {
+                    up[down[j]] = up[j];
+                    down[up[j]] = down[j];
+                    sizes[column[j]]--;
+                }
+            }
+        }
+
+        /**
+         * Puts a column and the rows covering it back, undoing {@link #cover(int)}.
+         */
+        private void uncover(int c) {
+            for (int i = up[c]; i != c; i = up[i]) {
+                for (int j = left[i]; j != i; j = left[j]) {
+                    sizes[column[j]]++;
+                    up[down[j]] = j;
+                    down[up[j]] = j;
+                }
+            }
+            left[right[c]] = c;
+            right[left[c]] = c;
+        }
+    }
+}
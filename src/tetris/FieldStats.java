@@ -0,0 +1,261 @@
+package tetris;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the statistics of a field that {@link GameEngine#rateField(long[], int)} rates it by: the height of every column,
+ * the number of filled cells of every row, the number of holes and the number of full rows. The other features of
+ * a {@link WeightProfile} are derived from them and from the rows of the stack when a field is rated.
+ * <p>
+ * The statistics are computed once with {@link #compute(int[])} and then updated incrementally when a shape is placed
+ * or full rows are cleared, touching only the rows and columns of the shape. A placement can also be rated without
+ * modifying anything, so the bot searches can rate a candidate in time proportional to the size of the block instead
+ * of the size of the field. An instance is not thread-safe.
+ */
+class FieldStats {
+    private final int width;
+    private final int height;
+    private final long fullRow;
+    private final int[] heights;
+    private final int[] rowCounts;
+    private int maxHeight;
+    private int holes;
+    private int fullRows;
+    private int cells;
+
+    /**
+     * Constructs the statistics of an empty field.
+     *
+     * @param width  The width of the field.
+     * @param height The height of the field.
+     */
+    FieldStats(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.fullRow = Board.fullRow(width);
+        heights = new int[width];
+        rowCounts = new int[height];
+    }
+
+    /**
+     * Computes the statistics of a field from scratch.
+     *
+     * @param rows The row masks of the field.
+     */
+    void compute(long[] rows) {
+        reset();
+        // columns that already have a block above the current row
+        long covered = 0;
+        for (int row = 0; row < height; row++) {
+            long mask = rows[row];
+            long fresh = mask & ~covered;
+            while (fresh != 0) {
+                heights[Long.numberOfTrailingZeros(fresh)] = height - row;
+                fresh &= fresh - 1;
+            }
+            if (mask != 0 && maxHeight == 0) maxHeight = height - row;
+            rowCounts[row] = Long.bitCount(mask);
+            if (rowCounts[row] == width) fullRows++;
+            cells += rowCounts[row];
+            holes += Long.bitCount(covered & ~mask);
+            covered |= mask;
+        }
+    }
+
+    /**
+     * Resets the statistics to the ones of an empty field.
+     */
+    void reset() {
+        Arrays.fill(heights, 0);
+        Arrays.fill(rowCounts, 0);
+        maxHeight = holes = fullRows = cells = 0;
+    }
+
+    /**
+     * Copies the statistics of another field of the same size.
+     *
+     * @param other The statistics to copy.
+     */
+    void copyFrom(FieldStats other) {
+        System.arraycopy(other.heights, 0, heights, 0, width);
+        System.arraycopy(other.rowCounts, 0, rowCounts, 0, height);
+        maxHeight = other.maxHeight;
+        holes = other.holes;
+        fullRows = other.fullRows;
+        cells = other.cells;
+    }
+
+    /**
+     * Rates the field a shape would leave behind by the lines, the height and the holes, without placing it.
+     * Gives the same score as {@link #rate(WeightProfile, long[])} of the field with the shape placed for a profile
+     * that only weighs these features, and with the default profile the same score as
+     * {@link GameEngine#rateField(long[], int)}.
+     *
+     * @param rows    The row masks of the field these statistics describe.
+     * @param masks   The row masks of the shape.
+     * @param x       The column of the left edge of the shape.
+     * @param y       The row of the top edge of the shape.
+     * @param profile The weights, see {@link WeightProfile#isIncremental()}.
+     * @return The score of the resulting field.
+     */
+    int ratePlacement(long[] rows, int[] masks, int x, int y, WeightProfile profile) {
+        int newFullRows = fullRows;
+        int newHoles = holes;
+        int newMaxHeight = maxHeight;
+        // columns whose highest cell of the shape was seen already
+        long seen = 0;
+        for (int r = 0; r < masks.length; r++) {
+            int row = y + r;
+            if (row < 0) continue;
+            // cells that are filled already, like those of a block spawned into the stack, do not count twice
+            long mask = (long) masks[r] << x & ~rows[row];
+            if (mask == 0) continue;
+            int count = Long.bitCount(mask);
+            if (rowCounts[row] + count == width) newFullRows++;
+            // every cell fills a hole, unless it raises its column
+            newHoles -= count;
+            long fresh = mask & ~seen;
+            seen |= mask;
+            while (fresh != 0) {
+                int col = Long.numberOfTrailingZeros(fresh);
+                int height = this.height - row;
+                if (height > heights[col]) {
+                    newHoles += height - heights[col];
+                    newMaxHeight = Math.max(newMaxHeight, height);
+                }
+                fresh &= fresh - 1;
+            }
+        }
+        return profile.lines() * newFullRows + profile.height() * newMaxHeight + profile.holes() * newHoles;
+    }
+
+    /**
+     * Places a shape on a field and updates the statistics. Cells above the field are discarded.
+     *
+     * @param rows  The row masks of the field these statistics describe, modified in place.
+     * @param masks The row masks of the shape.
+     * @param x     The column of the left edge of the shape.
+     * @param y     The row of the top edge of the shape.
+     */
+    void place(long[] rows, int[] masks, int x, int y) {
+        for (int r = 0; r < masks.length; r++) {
+            int row = y + r;
+            if (row < 0) continue;
+            long mask = (long) masks[r] << x & ~rows[row];
+            if (mask == 0) continue;
+            int count = Long.bitCount(mask);
+            rows[row] |= mask;
+            rowCounts[row] += count;
+            if (rowCounts[row] == width) fullRows++;
+            cells += count;
+            holes -= count;
+            int height = this.height - row;
+            while (mask != 0) {
+                int col = Long.numberOfTrailingZeros(mask);
+                if (height > heights[col]) {
+                    holes += height - heights[col];
+                    heights[col] = height;
+                }
+                mask &= mask - 1;
+            }
+            maxHeight = Math.max(maxHeight, height);
+        }
+    }
+
+    /**
+     * Removes all full rows from a field, shifting the rows above them down, and updates the statistics.
+     *
+     * @param rows The row masks of the field these statistics describe, modified in place.
+     * @return The number of removed rows.
+     */
+    int clearFullRows(long[] rows) {
+        int cleared = 0;
+        for (int row = height - 1; row >= 0 && fullRows > 0; row--) {
+            if (rowCounts[row] == width) {
+                System.arraycopy(rows, 0, rows, 1, row);
+                rows[0] = 0;
+                shiftDown(rows, row);
+                // check the row shifted into the removed one
+                row++;
+                cleared++;
+            }
+        }
+        return cleared;
+    }
+
+    /**
+     * Updates the statistics after a full row was removed and the rows above it were shifted one row down.
+     * Columns reaching above the row get one lower. A column whose highest cell was in the row loses its top
+     * and the holes below it, so only these columns are scanned for their new highest cell.
+     *
+     * @param rows The row masks of the field after the shift.
+     * @param r    The removed row.
+     */
+    void shiftDown(long[] rows, int r) {
+        System.arraycopy(rowCounts, 0, rowCounts, 1, r);
+        rowCounts[0] = 0;
+        maxHeight = 0;
+        for (int col = 0; col < width; col++) {
+            if (heights[col] == height - r) {
+                int row = r + 1;
+                while (row < height && (rows[row] & 1L << col) == 0) {
+                    row++;
+                }
+                // the empty cells between the removed row and the new top were holes
+                holes -= row - r - 1;
+                heights[col] = height - row;
+            } else {
+                heights[col]--;
+            }
+            maxHeight = Math.max(maxHeight, heights[col]);
+        }
+        fullRows--;
+        cells -= width;
+    }
+
+    /**
+     * Rates the field these statistics describe by the weights of a profile. With the default profile, the score is
+     * the same as the one of {@link GameEngine#rateField(long[], int)}. The landing height is not a feature of a field
+     * and is not rated.
+     *
+     * @param profile The weights.
+     * @param rows    The row masks of the field. Only read if the profile weighs more than the lines, the height
+     *                and the holes.
+     * @return The score of the field.
+     */
+    int rate(WeightProfile profile, long[] rows) {
+        int score = profile.lines() * fullRows + profile.height() * maxHeight + profile.holes() * holes;
+        if (profile.isIncremental()) return score;
+        int bumpiness = 0;
+        int wells = 0;
+        for (int col = 0; col < width; col++) {
+            int left = col == 0 ? Integer.MAX_VALUE : heights[col - 1];
+            int right = col == width - 1 ? Integer.MAX_VALUE : heights[col + 1];
+            if (col > 0) bumpiness += Math.abs(heights[col] - left);
+            wells += Math.max(0, Math.min(left, right) - heights[col]);
+        }
+        int rowTransitions = 0;
+        int columnTransitions = 0;
+        // the rows above the stack are empty
+        long above = 0;
+        for (int row = height - maxHeight; row < height; row++) {
+            long mask = rows[row];
+            rowTransitions += Long.bitCount((mask ^ mask >>> 1) & fullRow >>> 1)
+                    + (int) (~mask & 1) + (int) (~mask >>> width - 1 & 1);
+            columnTransitions += Long.bitCount(mask ^ above);
+            above = mask;
+        }
+        columnTransitions += Long.bitCount(~above & fullRow);
+        return score + profile.bumpiness() * bumpiness + profile.wells() * wells
+                + profile.rowTransitions() * rowTransitions + profile.columnTransitions() * columnTransitions;
+    }
+
+    int getWidth() { return width; }
+    int[] getHeights() { return heights; }
+    int getHeight(int col) { return heights[col]; }
+    int getRowCount(int row) { return rowCounts[row]; }
+    int getMaxHeight() { return maxHeight; }
+    int getHoles() { return holes; }
+    int getFullRows() { return fullRows; }
+    int getCells() { return cells; }
+}
@@ -0,0 +1,60 @@
+package tetris;
+
+import blocks.*;
+
+import java.util.List;
+
+/**
+ * Deals the blocks in a fixed sequence over and over again, without any randomness.
+ * By default it deals the sequence that was found by hand, which games of the {@link #FIXED} kind are replayed with.
+ * The sequence screen deals the one found by {@link SequenceSolver} instead.
+ */
+class FixedRandomizer implements Randomizer {
+    private final int[] order;
+
+    /**
+     * Constructs a randomizer dealing the sequence found by hand.
+     */
+    FixedRandomizer() {
+        this(null);
+    }
+
+    /**
+     * Constructs a randomizer dealing the given sequence.
+     *
+     * @param order The indices of the shapes in {@link #SHAPES}, in the order they spawn,
+     *              or null for the sequence found by hand.
+     * @throws IllegalArgumentException If the sequence has no blocks, so there would be nothing to deal.
+     */
+    FixedRandomizer(int[] order) {
+        if (order != null && order.length == 0) {
+            throw new IllegalArgumentException("The sequence has no blocks");
+        }
+        this.order = order == null ? null : order.clone();
+    }
+
+    @Override
+    public void fill(List<TetrisBlock> bag) {
+        if (order != null) {
+            for (int shape : order) {
+                bag.add(SHAPES.get(shape).get());
+            }
+            return;
+        }
+        bag.add(new VShape());
+        bag.add(new WShape());
+        bag.add(new NShape());
+        bag.add(new PShape());
+        bag.add(new IShape());
+        bag.add(new XShape());
+        bag.add(new FShape());
+        bag.add(new TShape());
+        bag.add(new ZShape());
+        bag.add(new UShape());
+        bag.add(new YShape());
+        bag.add(new LShape());
+    }
+
+    @Override
+    public int getKind() { return FIXED; }
+}
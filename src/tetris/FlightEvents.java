@@ -0,0 +1,114 @@
+package tetris;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Java Flight Recorder events of the game, shown under the category {@value #CATEGORY} of a recording.
+ * <p>
+ * A game is recorded with {@code java -XX:StartFlightRecording:filename=tetris.jfr Main} and the recording is analysed
+ * with standard tools like {@code jfr print --events tetris.* tetris.jfr} or JDK Mission Control. The events are
+ * enabled by default and record no stack traces, so they can stay on in every session. While no recording has them
+ * enabled, an event is only a check of a flag: its fields are filled in after {@link Event#shouldCommit()} and the
+ * object itself is removed by escape analysis, so the game does not allocate for them.
+ */
+final class FlightEvents {
+    static final String CATEGORY = "Tetris";
+
+    private FlightEvents() {
+    }
+
+    @Name("tetris.Spawn")
+    @Label("Block Spawned")
+    @Category(CATEGORY)
+    @Description("A new block was spawned at the top of the board.")
+    @StackTrace(false)
+    static class Spawn extends Event {
+        @Label("Block")
+        String block;
+        @Label("Board Height")
+        @Description("The height of the highest column of the stack.")
+        int boardHeight;
+    }
+
+    @Name("tetris.Lock")
+    @Label("Block Locked")
+    @Category(CATEGORY)
+    @Description("The current block was moved into the stack.")
+    @StackTrace(false)
+    static class Lock extends Event {
+        @Label("Block")
+        String block;
+        @Label("Column")
+        int x;
+        @Label("Row")
+        int y;
+        @Label("Rotation")
+        int rotation;
+        @Label("Board Height")
+        @Description("The height of the highest column of the stack, including the block.")
+        int boardHeight;
+    }
+
+    @Name("tetris.LineClear")
+    @Label("Lines Cleared")
+    @Category(CATEGORY)
+    @Description("Filled lines were cleared after a block was locked.")
+    @StackTrace(false)
+    static class LineClear extends Event {
+        @Label("Lines")
+        int lines;
+        @Label("Score")
+        int score;
+        @Label("Board Height")
+        @Description("The height of the highest column of the stack after the lines were cleared.")
+        int boardHeight;
+    }
+
+    @Name("tetris.GameOver")
+    @Label("Game Over")
+    @Category(CATEGORY)
+    @Description("A block did not fit on the board and the game was lost.")
+    @StackTrace(false)
+    static class GameOver extends Event {
+        @Label("Score")
+        int score;
+        @Label("Board Height")
+        int boardHeight;
+    }
+
+    @Name("tetris.BotDecision")
+    @Label("Bot Decision")
+    @Category(CATEGORY)
+    @Description("A bot searched the move of its block. The duration of the event is the duration of the search.")
+    @StackTrace(false)
+    static class BotDecision extends Event {
+        @Label("Mode")
+        @Description("The bot mode, see BotThread.")
+        int mode;
+        @Label("Block")
+        String block;
+        @Label("Candidates")
+        @Description("The number of positions of the block the bot chose from.")
+        int candidates;
+        @Label("Board Height")
+        int boardHeight;
+        @Label("Perfect Clear")
+        @Description("Whether the bot plays the block towards a perfect clear, see PerfectClear.")
+        boolean perfectClear;
+    }
+
+    @Name("tetris.Sound")
+    @Label("Sound Played")
+    @Category(CATEGORY)
+    @Description("A sound effect was handed to the sound backend. The duration is the time the game waited for it.")
+    @StackTrace(false)
+    static class Sound extends Event {
+        @Label("Sound")
+        String sound;
+    }
+}
@@ -0,0 +1,91 @@
+package tetris;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how well a game loop keeps its pace: how long every tick takes, how long it takes from an input of the
+ * player until the frame showing it is rendered, and how many ticks were missed because the loop fell behind.
+ * Recorded by the thread running the game and read by any thread, usually over JMX.
+ */
+public class FrameMetrics implements FrameMetricsMBean {
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final LatencyHistogram inputLatencies = new LatencyHistogram();
+    private final AtomicLong missedFrames = new AtomicLong();
+    private ObjectName name;
+
+    /**
+     * Records the time the loop spent on one tick.
+     *
+     * @param nanos The duration of the tick in nanoseconds.
+     */
+    void recordTick(long nanos) {
+        tickTimes.record(nanos);
+    }
+
+    /**
+     * Records the time from an input of the player until the frame showing it was rendered.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    void recordInput(long nanos) {
+        inputLatencies.record(nanos);
+    }
+
+    /**
+     * Records ticks that were skipped because the loop woke up too late for them.
+     *
+     * @param frames The number of skipped ticks.
+     */
+    void recordMissedFrames(long frames) {
+        missedFrames.addAndGet(frames);
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under {@code tetris:type=FrameMetrics,name=<name>}.
+     * Failing to register only means the metrics cannot be scraped, so it is not an error.
+     *
+     * @param loopName The name that tells the metrics of different loops apart.
+     */
+    void register(String loopName) {
+        try {
+            name = ObjectName.getInstance("tetris:type=FrameMetrics,name=" + ObjectName.quote(loopName));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        } catch (JMException e) {
+            name = null;
+        }
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server, if they were registered.
+     */
+    void unregister() {
+        if (name == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException ignored) {
+        }
+        name = null;
+    }
+
+    @Override
+    public void reset() {
+        tickTimes.reset();
+        inputLatencies.reset();
+        missedFrames.set(0);
+    }
+
+    @Override public long getTicks() { return tickTimes.getCount(); }
+    @Override public long getMissedFrames() { return missedFrames.get(); }
+    @Override public long getTickTimeMeanMicros() { return tickTimes.getMeanMicros(); }
+    @Override public long getTickTimeP50Micros() { return tickTimes.percentileMicros(50); }
+    @Override public long getTickTimeP99Micros() { return tickTimes.percentileMicros(99); }
+    @Override public long getTickTimeMaxMicros() { return tickTimes.getMaxMicros(); }
+    @Override public long getInputs() { return inputLatencies.getCount(); }
+    @Override public long getInputLatencyMeanMicros() { return inputLatencies.getMeanMicros(); }
+    @Override public long getInputLatencyP50Micros() { return inputLatencies.percentileMicros(50); }
+    @Override public long getInputLatencyP99Micros() { return inputLatencies.percentileMicros(99); }
+    @Override public long getInputLatencyMaxMicros() { return inputLatencies.getMaxMicros(); }
+}
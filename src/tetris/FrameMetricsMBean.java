@@ -0,0 +1,24 @@
+package tetris;
+
+/**
+ * The management interface of {@link FrameMetrics}, so the pacing of a running game can be scraped over JMX,
+ * for example with JConsole. All durations are in microseconds.
+ */
+public interface FrameMetricsMBean {
+    long getTicks();
+    long getMissedFrames();
+    long getTickTimeMeanMicros();
+    long getTickTimeP50Micros();
+    long getTickTimeP99Micros();
+    long getTickTimeMaxMicros();
+    long getInputs();
+    long getInputLatencyMeanMicros();
+    long getInputLatencyP50Micros();
+    long getInputLatencyP99Micros();
+    long getInputLatencyMaxMicros();
+
+    /**
+     * Forgets everything recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,828 @@
+package tetris;
+
+import blocks.*;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Implements the rules of the Tetris game without any user interface.
+ * This class is responsible for the game grid, spawning blocks, moving them, clearing lines and scoring.
+ * Views such as {@link GameArea} render it and are notified about changes through a {@link GameListener}.
+ * <p>
+ * An engine is changed by a single thread running the game. Other threads do not call its methods directly:
+ * they queue player inputs with {@link #submit(GameInput)}, which the game thread applies in
+ * {@link #processInputs()}, and read the game from the immutable {@link GameSnapshot} the game thread publishes
+ * whenever the game changes while a listener is set.
+ */
+public class GameEngine {
+    /**
+     * The pause of the bot before it drops its block, in milliseconds.
+     */
+    public static final int BOT_PAUSE = 500;
+    /**
+     * The number of blocks the bot with beam search places in a search by default, including the current one.
+     */
+    public static final int LOOKAHEAD_DEPTH = 3;
+    /**
+     * The number of fields the bot with beam search keeps after every block by default.
+     */
+    public static final int BEAM_WIDTH = 24;
+    // score weights of the default WeightProfile of the bots
+    public static final int LINES_WEIGHT = 100;
+    public static final int HEIGHT_WEIGHT = 10;
+    public static final int HOLES_WEIGHT = 2;
+    public final TetrisBlock[] allBlocks = Randomizer.newBlockSet();
+    private final Board board;
+    private final ArrayList<TetrisBlock> bag = new ArrayList<>();
+    private TetrisBlock block;
+    private TetrisBlock nextBlock;
+    private int score = 0;
+    private Randomizer randomizer;
+    private final Random random;
+    // the searches of the bots are created when a bot first needs them, so engines played by a player stay small
+    private MoveSearch search;
+    private ForkJoinPool searchPool;
+    private BeamSearch beamSearch;
+    private PerfectClear perfectClear;
+    private int lookaheadDepth = LOOKAHEAD_DEPTH;
+    private int beamWidth = BEAM_WIDTH;
+    private long budgetMicros = 20_000;
+    private TetrisBlock[] upcoming = new TetrisBlock[2];
+    private WeightProfile weightProfile = WeightProfile.selected();
+    private GameListener listener;
+    private TickPolicy tickPolicy = TickPolicy.REAL_TIME;
+    private final Queue<QueuedInput> inputs = new ConcurrentLinkedQueue<>();
+    private FrameMetrics frameMetrics;
+    private ReplayRecorder replayRecorder;
+    private volatile GameSnapshot snapshot;
+
+    /**
+     * Constructs a new GameEngine with an empty grid and fills the bag with TetrisBlocks for block spawning.
+     *
+     * @param optimalSequence If true, the blocks will spawn in an optimal sequence; otherwise, the sequence is random.
+     */
+    public GameEngine(boolean optimalSequence) {
+        this(optimalSequence, new Random());
+    }
+
+    /**
+     * Constructs a new GameEngine whose random decisions, the order of the blocks and the moves of the random bot,
+     * are taken from the given random number generator. Engines with equally seeded generators play the same game.
+     *
+     * @param optimalSequence If true, the blocks will spawn in an optimal sequence; otherwise, the sequence is random.
+     * @param random          The source of randomness of the game.
+     */
+    public GameEngine(boolean optimalSequence, Random random) {
+        this(optimalSequence ? Randomizer.create(Randomizer.FIXED, random) : Randomizer.create(Randomizer.BAG, random),
+                random);
+    }
+
+    /**
+     * Constructs a new GameEngine on a board of the default size whose blocks are dealt by the given randomizer.
+     *
+     * @param randomizer The randomizer deciding the order of the blocks.
+     * @param random     The source of the moves of the random bot.
+     */
+    public GameEngine(Randomizer randomizer, Random random) {
+        this(randomizer, random, Board.DEFAULT_WIDTH, Board.DEFAULT_HEIGHT);
+    }
+
+    /**
+     * Constructs a new GameEngine on a board of the given size whose blocks are dealt by the given randomizer.
+     *
+     * @param randomizer The randomizer deciding the order of the blocks.
+     * @param random     The source of the moves of the random bot.
+     * @param width      The number of columns of the board, see {@link Board#Board(int, int)}.
+     * @param height     The number of rows of the board.
+     * @throws IllegalArgumentException If the board is too small or too large.
+     */
+    public GameEngine(Randomizer randomizer, Random random, int width, int height) {
+        this.board = new Board(width, height);
+        this.randomizer = randomizer;
+        this.random = random;
+        fillBag();
+    }
+
+    /**
+     * Replaces the randomizer and forgets the blocks the previous one dealt ahead,
+     * so the next block to spawn is the first block of the new randomizer.
+     *
+     * @param randomizer The randomizer deciding the order of the blocks from now on.
+     */
+    public void setRandomizer(Randomizer randomizer) {
+        this.randomizer = randomizer;
+        bag.clear();
+    }
+
+    /**
+     * Sets the listener that is notified about changes of the game.
+     *
+     * @param listener The listener, or null to run without notifications.
+     */
+    public void setListener(GameListener listener) {
+        this.listener = listener;
+        if (listener != null) publishSnapshot();
+    }
+
+    /**
+     * Sets the policy that paces the moves of the bot.
+     *
+     * @param tickPolicy The tick policy.
+     */
+    public void setTickPolicy(TickPolicy tickPolicy) {
+        this.tickPolicy = tickPolicy;
+    }
+
+    /**
+     * Sets the pool the bot with knowledge of the next block fans its search out on.
+     *
+     * @param pool The pool, or null to search serially on the calling thread.
+     */
+    public void setSearchPool(ForkJoinPool pool) {
+        searchPool = pool;
+        if (search != null) search.setPool(pool);
+    }
+
+    /**
+     * Configures the lookahead of the bot with beam search.
+     *
+     * @param depth        The number of blocks placed in the search, including the current one.
+     * @param beamWidth    The number of fields kept after every block.
+     * @param budgetMicros The time budget of one search in microseconds, 0 for no limit.
+     */
+    public void setLookahead(int depth, int beamWidth, long budgetMicros) {
+        this.lookaheadDepth = depth;
+        this.beamWidth = beamWidth;
+        this.budgetMicros = budgetMicros;
+        beamSearch = null;
+        upcoming = new TetrisBlock[depth - 1];
+    }
+
+    /**
+     * Sets the weights the heuristic bots rate fields by.
+     *
+     * @param weightProfile The weights, by default the ones selected with {@value WeightProfile#PROFILE_PROPERTY}.
+     */
+    public void setWeightProfile(WeightProfile weightProfile) {
+        this.weightProfile = weightProfile;
+        search = null;
+        beamSearch = null;
+    }
+
+    private MoveSearch search() {
+        if (search == null) {
+            search = new MoveSearch(board.getWidth(), board.getHeight(), weightProfile);
+            search.setPool(searchPool);
+        }
+        return search;
+    }
+
+    private BeamSearch beamSearch() {
+        if (beamSearch == null) {
+            beamSearch = new BeamSearch(board.getWidth(), board.getHeight(), weightProfile, lookaheadDepth, beamWidth,
+                    budgetMicros);
+        }
+        return beamSearch;
+    }
+
+    /**
+     * Notifies the listener, if there is one, about a change of the game.
+     *
+     * @param event The kind of change.
+     */
+    private void fire(GameEvent event) {
+        if (listener != null) {
+            publishSnapshot();
+            listener.gameChanged(event);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the game and publishes it to other threads. Must be called by the thread running the game.
+     *
+     * @return The published snapshot.
+     */
+    public GameSnapshot publishSnapshot() {
+        int[][] nextShape = nextBlock == null ? null : nextBlock.getShape();
+        Color nextColor = nextBlock == null ? null : nextBlock.getColor();
+        GameSnapshot published = block == null
+                ? new GameSnapshot(board.snapshotColors(), null, null, 0, 0, 0, nextShape, nextColor, score)
+                : new GameSnapshot(board.snapshotColors(), block.getShape(), block.getColor(), block.getX(),
+                        block.getY(), getDropY(), nextShape, nextColor, score);
+        snapshot = published;
+        return published;
+    }
+
+    /**
+     * An input of the player together with the time it was given at.
+     */
+    private record QueuedInput(GameInput input, long submittedNanos) {
+    }
+
+    /**
+     * Sets the metrics the latency of the inputs of the player is recorded in.
+     *
+     * @param frameMetrics The metrics, or null to record nothing.
+     */
+    public void setFrameMetrics(FrameMetrics frameMetrics) {
+        this.frameMetrics = frameMetrics;
+    }
+
+    /**
+     * Sets the recorder the applied inputs of the player are written to.
+     *
+     * @param replayRecorder The recorder, or null to record nothing.
+     */
+    public void setReplayRecorder(ReplayRecorder replayRecorder) {
+        this.replayRecorder = replayRecorder;
+    }
+
+    /**
+     * Queues an input of the player. Can be called by any thread; the input is applied by the thread running the game.
+     *
+     * @param input The input.
+     */
+    public void submit(GameInput input) {
+        inputs.add(new QueuedInput(input, System.nanoTime()));
+    }
+
+    /**
+     * Applies all queued inputs without waiting for new ones. Must be called by the thread running the game.
+     * The listener renders the change of every input before the next one is applied, so the time until then is
+     * recorded as the latency of the input.
+     */
+    public void processInputs() {
+        QueuedInput queued;
+        while ((queued = inputs.poll()) != null) {
+            if (replayRecorder != null) replayRecorder.input(queued.input());
+            apply(queued.input());
+            if (frameMetrics != null) frameMetrics.recordInput(System.nanoTime() - queued.submittedNanos());
+        }
+    }
+
+    /**
+     * Applies an input of the player to the current block.
+     *
+     * @param input The input.
+     */
+    private void apply(GameInput input) {
+        switch (input) {
+            case LEFT -> moveBlockLeft();
+            case RIGHT -> moveBlockRight();
+            case ROTATE -> rotateBlock();
+            case DOWN -> moveBlockDown();
+            case DROP -> dropBlock();
+        }
+    }
+
+    /**
+     * Fills the bag of TetrisBlocks with the next blocks of the randomizer.
+     */
+    private void fillBag() {
+        randomizer.fill(bag);
+    }
+
+    /**
+     * Spawns a new block in the game area.
+     */
+    public void spawnBlock() {
+        if (bag.isEmpty()) {
+            fillBag();
+        }
+        block = bag.remove(0);
+        if (bag.isEmpty()) {
+            fillBag();
+        }
+        nextBlock = bag.get(0);
+        block.spawn(board.getWidth());
+        FlightEvents.Spawn event = new FlightEvents.Spawn();
+        if (event.shouldCommit()) {
+            event.block = block.getClass().getSimpleName();
+            event.boardHeight = board.getStats().getMaxHeight();
+            event.commit();
+        }
+        fire(GameEvent.CHANGED);
+    }
+
+    /**
+     * Returns a block that will be spawned after the current one, filling the bag ahead if necessary.
+     *
+     * @param index The position in the sequence, 0 being the next block.
+     * @return The upcoming block.
+     */
+    public TetrisBlock getUpcomingBlock(int index) {
+        while (bag.size() <= index) {
+            fillBag();
+        }
+        return bag.get(index);
+    }
+
+    /**
+     * Checks if the current block is positioned at the top of the game area.
+     *
+     * @return true if the block is at the top, otherwise false.
+     */
+    public boolean isBlockOnTop() {
+        if (block.getY() < 0) {
+            FlightEvents.GameOver event = new FlightEvents.GameOver();
+            if (event.shouldCommit()) {
+                event.score = score;
+                event.boardHeight = board.getStats().getMaxHeight();
+                event.commit();
+            }
+            block = null;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the current block can move one cell down.
+     *
+     * @return true if the block has free space below it, otherwise false.
+     */
+    private boolean checkBottom() {
+        return !board.collides(block.getMasks(), block.getX(), block.getY() + 1);
+    }
+
+    /**
+     * Checks if the current block has other block to its left
+     *
+     * @return true if the block has no other block to its left, otherwise false.
+     */
+    private boolean checkLeft() {
+        return !board.collides(block.getMasks(), block.getX() - 1, block.getY());
+    }
+
+    /**
+     * Checks if the current block has other block to its right
+     *
+     * @return true if the block has no other block to its right, otherwise false.
+     */
+    private boolean checkRight() {
+        return !board.collides(block.getMasks(), block.getX() + 1, block.getY());
+    }
+
+    /**
+     * Clears any filled lines in the game area and updates the score accordingly.
+     */
+    public void clearLine() {
+        FlightEvents.LineClear event = new FlightEvents.LineClear();
+        event.begin();
+        int lines = 0;
+        // try to find a full line
+        for (int row = board.getHeight() - 1; row >= 0 && board.hasFullRows(); row--) {
+            // if the filled line is found
+            if (board.isRowFull(row)) {
+                // clear it and shift the whole thing
+                board.shiftDown(row);
+                // adds to row to the checker to avoid skipping one just shifted down
+                row++;
+                score++;
+                lines++;
+                fire(GameEvent.LINE_CLEARED);
+            }
+        }
+        event.end();
+        if (lines > 0 && event.shouldCommit()) {
+            event.lines = lines;
+            event.score = score;
+            event.boardHeight = board.getStats().getMaxHeight();
+            event.commit();
+        }
+    }
+
+    /**
+     * Moves the current block to the background array.
+     */
+    public void moveBlockToBackground() {
+        board.place(block.getMasks(), block.getX(), block.getY(), block.getColor());
+        FlightEvents.Lock event = new FlightEvents.Lock();
+        if (event.shouldCommit()) {
+            event.block = block.getClass().getSimpleName();
+            event.x = block.getX();
+            event.y = block.getY();
+            event.rotation = block.getCurrentRotation();
+            event.boardHeight = board.getStats().getMaxHeight();
+            event.commit();
+        }
+    }
+
+    /**
+     * Attempts to move the current block one cell down.
+     *
+     * @return true if the block was successfully moved down, false otherwise.
+     */
+    public boolean moveBlockDown() {
+        if (block == null) return false;
+        if (!checkBottom()) {
+            fire(GameEvent.LANDED);
+            return false;
+        }
+        block.moveDown();
+        fire(GameEvent.MOVED_DOWN);
+        return true;
+    }
+
+    /**
+     * Moves the current block one cell to the left if possible.
+     */
+    public void moveBlockLeft() {
+        if (block==null) return;
+        if (checkLeft()) {
+            block.moveLeft();
+            fire(GameEvent.MOVED);
+        } else {
+            fire(GameEvent.BLOCKED);
+        }
+    }
+
+    /**
+     * Moves the current block one cell to the right if possible.
+     */
+    public void moveBlockRight() {
+        if (block==null) return;
+        if (checkRight()) {
+            block.moveRight();
+            fire(GameEvent.MOVED);
+        } else {
+            fire(GameEvent.BLOCKED);
+        }
+    }
+
+    /**
+     * Drops the current block straight down to the lowest possible position.
+     */
+    public void dropBlock() {
+        if (block == null) return;
+        while (checkBottom()) {
+            block.moveDown();
+        }
+        fire(GameEvent.DROPPED);
+    }
+
+    /**
+     * Rotates the current block, adjusting its position if necessary to fit within the game area.
+     * Reverts to the previous state if the rotation results in a collision.
+     */
+    public void rotateBlock() {
+        if (block == null) return;
+        if (tryRotate()) {
+            fire(GameEvent.ROTATED);
+        } else {
+            fire(GameEvent.CHANGED);
+        }
+    }
+
+    /**
+     * Rotates the current block, adjusting its position if necessary to fit within the game area.
+     * Restores the previous position and rotation if the rotation results in a collision.
+     *
+     * @return true if the block was rotated, false otherwise.
+     */
+    private boolean tryRotate() {
+        int oldX = block.getX();
+        int oldY = block.getY();
+        int oldRotation = block.getCurrentRotation();
+        block.rotate();
+        if (block.getLeftEdge() < 0) block.setX(0);
+        if (block.getRightEdge() >= board.getWidth()) block.setX(board.getWidth() - block.getWidth());
+        if (block.getBottomEdge() >= board.getHeight()) block.setY(board.getHeight() - block.getHeight());
+        // check rotate collision
+        if (!rotatedCorrectly()) {
+            block.setCurrentRotation(oldRotation);
+            block.setX(oldX);
+            block.setY(oldY);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the rotated position of the current block is valid without any collisions.
+     *
+     * @return true if the rotation does not result in a collision, false otherwise.
+     */
+    private boolean rotatedCorrectly() {
+        return !board.collides(block.getMasks(), block.getX(), block.getY());
+    }
+
+    /**
+     * Calculates the row the current block would land on if it was dropped, without moving it.
+     *
+     * @return The row of the top edge of the dropped block.
+     */
+    public int getDropY() {
+        int[] masks = block.getMasks();
+        int y = block.getY();
+        while (!board.collides(masks, block.getX(), y + 1)) {
+            y++;
+        }
+        return y;
+    }
+
+    /**
+     * Calculates the current pause duration based on the score.
+     * This duration determines the speed at which blocks fall.
+     *
+     * @return The calculated pause duration in milliseconds.
+     */
+    public int getPause() {
+        // math function controlling speed with points (0,1000) -> (30, 200) -> (infinite, 200)
+        return (int) (200 + 800 / Math.exp(0.05 * score));
+    }
+
+    /**
+     * Restarts the game with an empty grid, a zero score and a new bag.
+     */
+    public void reset() {
+        score = 0;
+        // inputs given while the game was over do not belong to the new game
+        inputs.clear();
+        board.clear();
+        fillBag();
+        fire(GameEvent.CHANGED);
+    }
+
+    // BOT PART //
+
+    /**
+     * Plays one block with a bot: spawns it, lets the bot move it, then drops it and clears the filled lines.
+     *
+     * @param mode The bot algorithm. 1: random moves, 2: heuristic, 3: heuristic with knowledge of the next block,
+     *             4: heuristic with beam search over the upcoming blocks, 5: heuristic with knowledge of the next
+     *             block choosing from every reachable position, including tucks under overhangs, 6: like 5, but
+     *             clearing the whole board with the upcoming blocks when the stack is low and they can.
+     * @return true if the block was placed, false if it did not fit and the game is lost.
+     */
+    public boolean playBotBlock(int mode) throws InterruptedException {
+        spawnBlock();
+        while (moveBlockDown()) {
+            if (mode == 1) {
+                randomBotMove();
+            }
+            if (mode == 2) {
+                automatedBotMove();
+            } else if (mode == 3) {
+                automatedBotMove2();
+            } else if (mode == 4) {
+                beamSearchMove();
+            } else if (mode == 5) {
+                generatedMove();
+            } else if (mode == 6) {
+                perfectClearMove();
+            }
+            tickPolicy.pause(BOT_PAUSE);
+            dropBlock();
+        }
+        if (isBlockOnTop()) {
+            return false;
+        }
+        moveBlockToBackground();
+        clearLine();
+        return true;
+    }
+
+    /**
+     * Executes a random move for the bot.
+     * The move could be either a left move, a right move, or a rotation.
+     */
+    public void randomBotMove() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            int move = random.nextInt(3);
+            tickPolicy.pause(200);
+            if (move == 0) {
+                moveBlockLeft();
+            } else if (move == 1) {
+                moveBlockRight();
+            } else {
+                rotateBlock();
+            }
+        }
+    }
+
+    /**
+     * Executes a series of automated moves for the bot. The method calculates the best move based on a scoring algorithm,
+     * carries out the move, and updates the game state accordingly.
+     */
+    public void automatedBotMove() throws InterruptedException {
+        FlightEvents.BotDecision decision = new FlightEvents.BotDecision();
+        decision.begin();
+        int bestPlacement = search().findBestMove(board.getRows(), board.getStats(), block);
+        commitDecision(decision, 2, search.getCandidates());
+        // do the move
+        carryPlacement(bestPlacement, true);
+    }
+
+    /**
+     * Executes a series of automated moves for the bot taking into account the next piece.
+     * The method calculates the best move based on a scoring algorithm,
+     * carries out the move, and updates the game state accordingly.
+     */
+    public void automatedBotMove2() throws InterruptedException {
+        tickPolicy.pause(10);
+        FlightEvents.BotDecision decision = new FlightEvents.BotDecision();
+        decision.begin();
+        int bestPlacement = search().findBestMove(board.getRows(), board.getStats(), block, nextBlock);
+        commitDecision(decision, 3, search.getCandidates());
+        // do the move
+        carryPlacement(bestPlacement, true);
+    }
+
+    /**
+     * Executes a series of automated moves for the bot looking several blocks ahead with beam search,
+     * as configured by {@link #setLookahead(int, int, long)}.
+     */
+    public void beamSearchMove() throws InterruptedException {
+        for (int i = 0; i < upcoming.length; i++) {
+            upcoming[i] = getUpcomingBlock(i);
+        }
+        FlightEvents.BotDecision decision = new FlightEvents.BotDecision();
+        decision.begin();
+        int bestPlacement = beamSearch().findBestMove(board.getRows(), board.getStats(), block, upcoming);
+        commitDecision(decision, 4, beamSearch.getCandidates());
+        // do the move
+        carryPlacement(bestPlacement, true);
+    }
+
+    /**
+     * Executes a series of automated moves for the bot taking into account the next piece, choosing from every
+     * position the block can be steered to, including slides and tucks under overhangs, and following the inputs
+     * that lead there.
+     */
+    public void generatedMove() throws InterruptedException {
+        tickPolicy.pause(10);
+        FlightEvents.BotDecision decision = new FlightEvents.BotDecision();
+        decision.begin();
+        GameInput[] path = search().findBestPath(board.getRows(), board.getStats(), block, nextBlock);
+        commitDecision(decision, 5, search.getCandidates());
+        if (Log.isDebugEnabled()) Log.debug("Carrying out path: " + Arrays.toString(path));
+        // do the move
+        carryPath(path, true);
+    }
+
+    /**
+     * Executes a series of automated moves for the bot like {@link #generatedMove()}, but while the stack is at most
+     * {@value PerfectClear#ORACLE_ROWS} rows high on a board of at most {@value PerfectClear#ORACLE_WIDTH} columns,
+     * first asks {@link PerfectClear} if the current and the upcoming blocks can clear the whole board, and if so
+     * follows the inputs to the position of the current block in it.
+     */
+    public void perfectClearMove() throws InterruptedException {
+        tickPolicy.pause(10);
+        FlightEvents.BotDecision decision = new FlightEvents.BotDecision();
+        decision.begin();
+        GameInput[] path = null;
+        int candidates = 0;
+        if (board.getStats().getMaxHeight() <= PerfectClear.ORACLE_ROWS
+                && board.getWidth() <= PerfectClear.ORACLE_WIDTH) {
+            if (perfectClear == null) perfectClear = new PerfectClear(board.getWidth(), board.getHeight());
+            // enough blocks to fill every row the oracle looks at
+            ArrayList<TetrisBlock> blocks = new ArrayList<>();
+            blocks.add(block);
+            int cells = board.getStats().getCells() + PerfectClear.cellsOf(block);
+            for (int i = 0; cells < PerfectClear.ORACLE_ROWS * board.getWidth(); i++) {
+                blocks.add(getUpcomingBlock(i));
+                cells += PerfectClear.cellsOf(blocks.get(i + 1));
+            }
+            path = perfectClear.findPath(board.getRows(), blocks.toArray(new TetrisBlock[0]));
+            candidates = perfectClear.getCandidates();
+        }
+        if (path == null) {
+            path = search().findBestPath(board.getRows(), board.getStats(), block, nextBlock);
+            candidates = search.getCandidates();
+        } else {
+            decision.perfectClear = true;
+            Log.debug("Playing for a perfect clear");
+        }
+        commitDecision(decision, 6, candidates);
+        if (Log.isDebugEnabled()) Log.debug("Carrying out path: " + Arrays.toString(path));
+        // do the move
+        carryPath(path, true);
+    }
+
+    /**
+     * Ends the flight recorder event of a bot decision after the search and commits it if it is recorded.
+     *
+     * @param decision   The event, begun before the search.
+     * @param mode       The bot mode that searched.
+     * @param candidates The number of positions of the block the search chose from.
+     */
+    private void commitDecision(FlightEvents.BotDecision decision, int mode, int candidates) {
+        decision.end();
+        if (decision.shouldCommit()) {
+            decision.mode = mode;
+            decision.block = block.getClass().getSimpleName();
+            decision.candidates = candidates;
+            decision.boardHeight = board.getStats().getMaxHeight();
+            decision.commit();
+        }
+    }
+
+    /**
+     * Steers the current block along the inputs of a path, with the same rules as the inputs of a player.
+     *
+     * @param path  The inputs, as found by {@link MoveGenerator#getPath(int)}.
+     * @param sleep Specifies whether to pause between actions for visual effect, as decided by the tick policy.
+     */
+    void carryPath(GameInput[] path, boolean sleep) throws InterruptedException {
+        for (GameInput input : path) {
+            if (block == null) return;
+            switch (input) {
+                case LEFT -> {
+                    if (checkLeft()) block.moveLeft();
+                }
+                case RIGHT -> {
+                    if (checkRight()) block.moveRight();
+                }
+                case ROTATE -> tryRotate();
+                case DOWN -> {
+                    if (checkBottom()) block.moveDown();
+                }
+                case DROP -> {
+                    while (checkBottom()) block.moveDown();
+                }
+            }
+            fire(GameEvent.CHANGED);
+            if (sleep) tickPolicy.pause(200);
+        }
+    }
+
+    /**
+     * Steers the current block to a placement: rotates it until it shows the rotation of the placement,
+     * then shifts it towards the column of the placement until it gets there or is blocked.
+     *
+     * @param placement The placement, as packed by {@link PlacementTable#placement(int, int)}.
+     * @param sleep     Specifies whether to pause between actions for visual effect, as decided by the tick policy.
+     */
+    private void carryPlacement(int placement, boolean sleep) throws InterruptedException {
+        int rotation = PlacementTable.rotationOf(placement);
+        int x = PlacementTable.xOf(placement);
+        if (Log.isDebugEnabled()) Log.debug("Carrying out placement: Rotation: " + rotation + " Column: " + x);
+        // Carry out the moves
+        for (int i = 1; i < PlacementTable.ROTATIONS; i++) {
+            if (block == null || block.getTable().getCanonicalRotation(block.getCurrentRotation()) == rotation) break;
+            if (sleep) tickPolicy.pause(200);
+            tryRotate();
+            fire(GameEvent.CHANGED);
+            if (sleep) tickPolicy.pause(200);
+        }
+        if (block == null) return;
+        while (block.getX() > x && checkLeft()) {
+            block.moveLeft();
+            fire(GameEvent.CHANGED);
+            if (sleep) tickPolicy.pause(200);
+        }
+        while (block.getX() < x && checkRight()) {
+            block.moveRight();
+            fire(GameEvent.CHANGED);
+            if (sleep) tickPolicy.pause(200);
+        }
+    }
+
+    /**
+     * Rates a given field configuration based on the number of lines cleared, the height of the stack,
+     * and the number of holes, weighted like the default {@link WeightProfile}. The bots get the same score
+     * incrementally from {@link FieldStats}.
+     *
+     * @param field The row masks of the field configuration to be rated, one per row of the board.
+     * @param width The width of the board.
+     * @return The score of the field configuration.
+     */
+    public static int rateField(long[] field, int width) {
+        long fullRow = Board.fullRow(width);
+        int linesAmount = 0;
+        int totalHeight = 0;
+        int holesAmount = 0;
+        // columns that already have a block above the current row
+        long covered = 0;
+        for (int row = 0; row < field.length; row++) {
+            long mask = field[row];
+            // rate lines
+            if (mask == fullRow) {
+                linesAmount++;
+            }
+            // rate height
+            if (mask != 0 && totalHeight == 0) {
+                totalHeight = field.length - row;
+            }
+            // rate empty holes
+            holesAmount += Long.bitCount(covered & ~mask);
+            covered |= mask;
+        }
+        // return total score
+        return (LINES_WEIGHT * linesAmount) - (HEIGHT_WEIGHT * totalHeight) - (HOLES_WEIGHT * holesAmount);
+    }
+
+    public Board getBoard() { return board; }
+    public TetrisBlock getBlock() { return block; }
+    public TetrisBlock getNextBlock() { return nextBlock; }
+    public int getScore() { return score; }
+    public WeightProfile getWeightProfile() { return weightProfile; }
+    public GameSnapshot getSnapshot() { return snapshot; }
+}
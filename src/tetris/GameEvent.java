@@ -0,0 +1,23 @@
+package tetris;
+
+/**
+ * The kinds of changes a {@link GameEngine} reports to its {@link GameListener}.
+ */
+public enum GameEvent {
+    /** The current block moved one cell to the left or right. */
+    MOVED,
+    /** The current block could not move to the left or right. */
+    BLOCKED,
+    /** The current block was rotated. */
+    ROTATED,
+    /** The current block moved one cell down. */
+    MOVED_DOWN,
+    /** The current block could not move down any further. */
+    LANDED,
+    /** The current block was dropped to the lowest possible position. */
+    DROPPED,
+    /** A filled line was cleared. */
+    LINE_CLEARED,
+    /** Any other change of the game state. */
+    CHANGED
+}
@@ -0,0 +1,18 @@
+package tetris;
+
+/**
+ * The commands a player can give to a {@link GameEngine}.
+ * Inputs are queued with {@link GameEngine#submit(GameInput)} on any thread and applied by the thread running the game.
+ */
+public enum GameInput {
+    /** Move the current block one cell to the left. */
+    LEFT,
+    /** Move the current block one cell to the right. */
+    RIGHT,
+    /** Rotate the current block. */
+    ROTATE,
+    /** Move the current block one cell down. */
+    DOWN,
+    /** Drop the current block to the lowest possible position. */
+    DROP
+}
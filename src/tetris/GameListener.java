@@ -0,0 +1,14 @@
+package tetris;
+
+/**
+ * Receives notifications about changes of a {@link GameEngine}, for example to render the game or play sounds.
+ */
+public interface GameListener {
+
+    /**
+     * Called after the state of the game changed.
+     *
+     * @param event The kind of change.
+     */
+    void gameChanged(GameEvent event);
+}
@@ -0,0 +1,75 @@
+package tetris;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rules of the player's game loop that do not depend on the clock: what happens in one tick.
+ * Every tick applies the queued inputs of the player, lets gravity move the block down once a whole pause has built
+ * up, and settles the block when it lands. The thread running the loop decides when a tick happens, so the same ticks
+ * with the same inputs play the same game, whether they are paced in real time by {@link GameThread} or run at full
+ * speed by {@link ReplayPlayer}.
+ */
+class GameLoop {
+    static final int TICKS_PER_SECOND = 60;
+    static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1) / TICKS_PER_SECOND;
+    private final GameEngine engine;
+    private ReplayRecorder recorder;
+    // the time gravity has built up since the block last moved down
+    private long gravity;
+
+    /**
+     * Constructs a loop running a game on an engine.
+     *
+     * @param engine The engine running the game.
+     */
+    GameLoop(GameEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Sets the recorder the ticks and the inputs of the game are written to.
+     *
+     * @param recorder The recorder, or null to record nothing.
+     */
+    void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+        engine.setReplayRecorder(recorder);
+    }
+
+    /**
+     * Spawns the first block of a game.
+     */
+    void start() {
+        spawnBlock();
+    }
+
+    /**
+     * Runs one tick of the game.
+     *
+     * @param skipped The number of ticks the loop was too late for since the last one. Gravity gets their time.
+     * @return true if the game goes on, false if a block did not fit and the game is lost.
+     */
+    boolean tick(long skipped) {
+        if (recorder != null) recorder.tick(skipped);
+        gravity += (skipped + 1) * TICK_NANOS;
+        engine.processInputs();
+        long pause = TimeUnit.MILLISECONDS.toNanos(engine.getPause());
+        boolean landed = false;
+        while (gravity >= pause && !landed) {
+            gravity -= pause;
+            landed = !engine.moveBlockDown();
+        }
+        if (!landed) return true;
+        if (engine.isBlockOnTop()) return false;
+        engine.moveBlockToBackground();
+        engine.clearLine();
+        spawnBlock();
+        return true;
+    }
+
+    private void spawnBlock() {
+        engine.spawnBlock();
+        // the new block moves down on the next tick
+        gravity = TimeUnit.MILLISECONDS.toNanos(engine.getPause()) - TICK_NANOS;
+    }
+}
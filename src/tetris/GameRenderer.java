@@ -0,0 +1,268 @@
+package tetris;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renders frames of a game into off-screen images, so the frames can be drawn on the thread that changes the game
+ * while the event dispatch thread only copies the last finished frame to the screen.
+ * A frame is rendered from a {@link GameSnapshot} only, never from the engine itself.
+ * <p>
+ * Every cell is drawn from a sprite that is rendered once per color and cell size. The parts of the frame that never
+ * change, like the boxes and the labels, are composited once into a background image. The settled cells live in
+ * a layer of their own in which only the rows that were replaced since the last frame are redrawn.
+ * A frame is rendered into a back buffer that is swapped with the front buffer when it is finished.
+ * Rendering does not allocate, except for the sprites of new colors and the text of a new score.
+ * The frame is laid out for a board of the default size; the board layer takes the size of the rendered board.
+ */
+class GameRenderer {
+    static final int CELL_SIZE = 40;
+    static final int FRAME_WIDTH = 600;
+    static final int FRAME_HEIGHT = 800;
+    private static final int BOARD_X = 100;
+    private static final int BOARD_Y = 100;
+    // the grid lines are 2 pixels wide, so they reach 1 pixel beyond their cell
+    private static final int LINE_OVERHANG = 1;
+    private static final int SHINE_SIZE = 5;
+    private static final Color SHINE_COLOR = new Color(255, 255, 255, 50);
+    private static final Color DARK_COLOR = new Color(0, 0, 0, 50);
+    private static final Color PREVIEW_COLOR = Color.LIGHT_GRAY;
+    private static final Color PREVIEW_LINE_COLOR = Color.BLACK;
+    private static final BasicStroke STROKE = new BasicStroke(2);
+    private static final Font FONT = new Font("Arial", Font.PLAIN, 15);
+
+    private final Color fillColor;
+    private final Color textColor;
+    private final Color backgroundColor;
+    private final BufferedImage background;
+    private final BufferedImage boardLayer;
+    private final Graphics2D boardGraphics;
+    // the rows of the snapshots the board layer was last drawn from; snapshot rows never change, so a row that is
+    // the same array as before looks the same as before
+    private final Color[][] drawnRows;
+    private final BufferedImage emptySprite;
+    private final BufferedImage previewSprite;
+    private final Map<Color, BufferedImage> sprites = new HashMap<>();
+    private final Map<Integer, Map<Color, BufferedImage>> nextBlockSprites = new HashMap<>();
+    private BufferedImage front, back;
+    private Graphics2D frontGraphics, backGraphics;
+    private final Object swapLock = new Object();
+    private int drawnScore = -1;
+    private String scoreText;
+
+    /**
+     * Constructs a renderer and composites the static background.
+     *
+     * @param fillColor       The color of the empty cells and the boxes.
+     * @param textColor       The color of the text and the grid lines.
+     * @param backgroundColor The color of the area above the board.
+     * @param width           The number of columns of the rendered board.
+     * @param height          The number of rows of the rendered board.
+     */
+    GameRenderer(Color fillColor, Color textColor, Color backgroundColor, int width, int height) {
+        this.fillColor = fillColor;
+        this.textColor = textColor;
+        this.backgroundColor = backgroundColor;
+        background = createBackground();
+        drawnRows = new Color[height][];
+        boardLayer = new BufferedImage(width * CELL_SIZE + 2 * LINE_OVERHANG,
+                height * CELL_SIZE + 2 * LINE_OVERHANG, BufferedImage.TYPE_INT_ARGB);
+        boardGraphics = boardLayer.createGraphics();
+        emptySprite = createSprite(fillColor, false, textColor, CELL_SIZE);
+        previewSprite = createSprite(PREVIEW_COLOR, false, PREVIEW_LINE_COLOR, CELL_SIZE);
+        front = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        back = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        frontGraphics = front.createGraphics();
+        backGraphics = back.createGraphics();
+    }
+
+    /**
+     * Composites the parts of the frame that never change: the area above the board, the score box, the next block box,
+     * their labels and the title.
+     */
+    private BufferedImage createBackground() {
+        BufferedImage image = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.setStroke(STROKE);
+        g2.setColor(fillColor);
+        g2.fillRect(0, 0, FRAME_WIDTH, FRAME_HEIGHT);
+        // hide the blocks above the board
+        g2.setColor(backgroundColor);
+        g2.fillRect(0, 0, 500, 99);
+        g2.setFont(FONT);
+        // score box
+        g2.setColor(textColor);
+        g2.drawRect(350, 100, 150, 50);
+        g2.setColor(fillColor);
+        g2.fillRect(350 + 2, 100 + 2, 150 - 4, 50 - 4);
+        g2.setColor(textColor);
+        g2.drawString("Current score:", 380, 120);
+        // next block box
+        g2.drawRect(350, 175, 150, 150);
+        g2.setColor(fillColor);
+        g2.fillRect(350 + 2, 175 + 2, 150 - 4, 150 - 4);
+        g2.setColor(textColor);
+        g2.drawString("Next block:", 390, 195);
+        // title
+        g2.drawString("Group 20's Tetris", 245, 60);
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * Renders a single cell with its grid lines.
+     *
+     * @param color     The color of the cell.
+     * @param shaded    Whether the cell gets a shine on its top and left edge and a shadow on its bottom and right edge.
+     * @param lineColor The color of the grid lines.
+     * @param size      The size of the cell in pixels.
+     * @return The sprite, with the grid lines reaching {@value #LINE_OVERHANG} pixel beyond the cell.
+     */
+    private static BufferedImage createSprite(Color color, boolean shaded, Color lineColor, int size) {
+        BufferedImage sprite = new BufferedImage(size + 2 * LINE_OVERHANG, size + 2 * LINE_OVERHANG,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = sprite.createGraphics();
+        g2.translate(LINE_OVERHANG, LINE_OVERHANG);
+        g2.setColor(color);
+        g2.fillRect(0, 0, size, size);
+        if (shaded) {
+            g2.setColor(SHINE_COLOR);
+            g2.fillRect(0, 0, SHINE_SIZE, size);
+            g2.fillRect(0, 0, size, SHINE_SIZE);
+            g2.setColor(DARK_COLOR);
+            g2.fillRect(0, size - SHINE_SIZE, size, SHINE_SIZE);
+            g2.fillRect(size - SHINE_SIZE, 0, SHINE_SIZE, size);
+        }
+        g2.setStroke(STROKE);
+        g2.setColor(lineColor);
+        g2.drawRect(0, 0, size, size);
+        g2.dispose();
+        return sprite;
+    }
+
+    private BufferedImage sprite(Color color) {
+        BufferedImage sprite = sprites.get(color);
+        if (sprite == null) {
+            sprite = createSprite(color, true, textColor, CELL_SIZE);
+            sprites.put(color, sprite);
+        }
+        return sprite;
+    }
+
+    private BufferedImage nextBlockSprite(Color color, int size) {
+        Map<Color, BufferedImage> sized = nextBlockSprites.get(size);
+        if (sized == null) {
+            sized = new HashMap<>();
+            nextBlockSprites.put(size, sized);
+        }
+        BufferedImage sprite = sized.get(color);
+        if (sprite == null) {
+            sprite = createSprite(color, true, textColor, size);
+            sized.put(color, sprite);
+        }
+        return sprite;
+    }
+
+    /**
+     * Renders a frame of the game into the back buffer and swaps it with the front buffer.
+     *
+     * @param snapshot The state of the game to render.
+     */
+    synchronized void render(GameSnapshot snapshot) {
+        Graphics2D g2 = backGraphics;
+        g2.drawImage(background, 0, 0, null);
+        updateBoardLayer(snapshot.cells());
+        g2.drawImage(boardLayer, BOARD_X - LINE_OVERHANG, BOARD_Y - LINE_OVERHANG, null);
+        int[][] blockShape = snapshot.blockShape();
+        if (blockShape != null) {
+            drawShape(g2, blockShape, snapshot.blockX(), snapshot.dropY(), previewSprite);
+            drawShape(g2, blockShape, snapshot.blockX(), snapshot.blockY(), sprite(snapshot.blockColor()));
+        }
+        drawNextBlock(g2, snapshot.nextShape(), snapshot.nextColor());
+        drawScore(g2, snapshot.score());
+        synchronized (swapLock) {
+            BufferedImage finished = back;
+            back = front;
+            front = finished;
+        }
+        backGraphics = frontGraphics;
+        frontGraphics = g2;
+    }
+
+    /**
+     * Draws the last finished frame.
+     *
+     * @param g The graphics to draw into.
+     */
+    void paint(Graphics g) {
+        synchronized (swapLock) {
+            g.drawImage(front, 0, 0, null);
+        }
+    }
+
+    /**
+     * Redraws the rows of the board layer that were replaced since the last frame.
+     */
+    private void updateBoardLayer(Color[][] cells) {
+        for (int row = 0; row < cells.length; row++) {
+            if (cells[row] == drawnRows[row]) continue;
+            drawnRows[row] = cells[row];
+            for (int col = 0; col < cells[row].length; col++) {
+                Color color = cells[row][col];
+                boardGraphics.drawImage(color == null ? emptySprite : sprite(color),
+                        col * CELL_SIZE, row * CELL_SIZE, null);
+            }
+        }
+    }
+
+    /**
+     * Draws the cells of a shape that are on the board.
+     */
+    private void drawShape(Graphics2D g2, int[][] shape, int x, int y, BufferedImage sprite) {
+        for (int row = 0; row < shape.length; row++) {
+            // the area above the board is hidden
+            if (y + row < 0) continue;
+            for (int col = 0; col < shape[row].length; col++) {
+                if (shape[row][col] == 1) {
+                    g2.drawImage(sprite, BOARD_X + (x + col) * CELL_SIZE - LINE_OVERHANG,
+                            BOARD_Y + (y + row) * CELL_SIZE - LINE_OVERHANG, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws the next block centered in its box.
+     */
+    private void drawNextBlock(Graphics2D g2, int[][] shape, Color color) {
+        if (shape == null) return;
+        int pWidth = shape[0].length;
+        int pHeight = shape.length;
+        int pCellSize = 100 / Math.max(pWidth, pHeight);
+        BufferedImage sprite = nextBlockSprite(color, pCellSize);
+        // Calculate the starting position to draw the pent centered in the box
+        int boxCenterX = (375 + 475) / 2;
+        int boxCenterY = (210 + 310) / 2;
+        int startX = boxCenterX - (pWidth * pCellSize) / 2;
+        int startY = boxCenterY - (pHeight * pCellSize) / 2;
+        for (int row = 0; row < pHeight; row++) {
+            for (int col = 0; col < pWidth; col++) {
+                if (shape[row][col] == 1) {
+                    g2.drawImage(sprite, startX + col * pCellSize - LINE_OVERHANG, startY + row * pCellSize - LINE_OVERHANG, null);
+                }
+            }
+        }
+    }
+
+    private void drawScore(Graphics2D g2, int score) {
+        if (score != drawnScore) {
+            drawnScore = score;
+            scoreText = String.valueOf(score);
+        }
+        g2.setFont(FONT);
+        g2.setColor(textColor);
+        g2.drawString(scoreText, 415, 140);
+    }
+}
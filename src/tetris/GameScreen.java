@@ -19,7 +19,7 @@ public class GameScreen extends JFrame {
      */
     public GameScreen(boolean darkMode) {
         this.getContentPane().setBackground(Color.BLACK);
-        ga = new GameArea(darkMode, false);
+        ga = new GameArea(new GameEngine(false), darkMode);
         this.add(ga);
         this.pack();
         this.setLocationRelativeTo(null);
@@ -47,6 +47,7 @@ public class GameScreen extends JFrame {
     /**
      * Initializes the control bindings for the game.
      * Sets up the key bindings for moving the Tetris blocks and links them to the corresponding actions.
+     * The actions queue inputs to the game thread instead of changing the engine on the event dispatch thread.
      */
     private void initControls() {
         // sets key bindings and the actions assigned to them
@@ -64,31 +65,31 @@ public class GameScreen extends JFrame {
         am.put("right", new AbstractAction() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                ga.moveBlockRight();
+                ga.getEngine().submit(GameInput.RIGHT);
             }
         });
         am.put("left", new AbstractAction() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                ga.moveBlockLeft();
+                ga.getEngine().submit(GameInput.LEFT);
             }
         });
         am.put("up", new AbstractAction() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                ga.rotateBlock();
+                ga.getEngine().submit(GameInput.ROTATE);
             }
         });
         am.put("down", new AbstractAction() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                ga.moveBlockDown();
+                ga.getEngine().submit(GameInput.DOWN);
             }
         });
         am.put("drop", new AbstractAction() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                ga.dropBlock();
+                ga.getEngine().submit(GameInput.DROP);
             }
         });
     }
@@ -0,0 +1,381 @@
+package tetris;
+
+import java.awt.*;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hosts many headless games in one JVM and lets clients on the same machine play and watch them.
+ * <p>
+ * The games are {@link GameSession}s ticked by a {@link SessionScheduler} on a few threads, so thousands of them cost
+ * a few threads instead of a thread and a window each. Clients connect over TCP to the loopback address only.
+ * All connections are served by one thread with a {@link Selector}. The protocol is line based: every command is one
+ * line, answered by one line, in order:
+ * <ul>
+ *     <li>{@code NEW PLAYER [randomizer] [seed]} starts a game played with {@code INPUT}, answered by {@code OK <id>}.
+ *     The randomizer is one of {@link Randomizer#NAMES}.</li>
+ *     <li>{@code NEW BOT <mode> [randomizer] [seed]} starts a game played by a bot, see
+ *     {@link BotThread#BotThread(GameArea, int)}, answered by {@code OK <id>}.</li>
+ *     <li>{@code INPUT <id> LEFT|RIGHT|ROTATE|DOWN|DROP} queues an input of the player, answered by {@code OK}.</li>
+ *     <li>{@code STATE <id>} is answered after the next tick of the game by
+ *     {@code STATE <id> <score> RUNNING|LOST <rows>}, the rows of the board from the top separated by {@code /},
+ *     with {@code .} for an empty cell, {@code #} for a settled one and {@code @} for one of the falling block.</li>
+ *     <li>{@code CLOSE <id>} ends a game started on the same connection, answered by {@code OK}.</li>
+ *     <li>{@code SESSIONS} is answered by {@code SESSIONS <open games> <missed ticks>}.</li>
+ *     <li>{@code QUIT} is answered by {@code BYE} and closes the connection.</li>
+ * </ul>
+ * Anything else is answered by {@code ERR <reason>}. The games started on a connection end when it closes.
+ * <p>
+ * Usage: {@code java tetris.GameServer [port] [threads]}
+ */
+public class GameServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 4747;
+    static final int MAX_SESSIONS = 10_000;
+    private static final int MAX_LINE = 256;
+    private final SessionScheduler scheduler;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Map<Integer, GameSession> sessions = new ConcurrentHashMap<>();
+    private final Random seeds = new Random();
+    private int nextId = 1;
+    // connections with responses completed by the scheduler, to be written by the serving thread
+    private final Queue<Connection> completed = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Starts the scheduler and binds the server to the loopback address.
+     *
+     * @param port    The port to listen on, 0 for any free port.
+     * @param threads The number of threads ticking the games.
+     * @throws IOException If the port cannot be bound.
+     */
+    public GameServer(int port, int threads) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        scheduler = new SessionScheduler(threads);
+    }
+
+    /**
+     * Serves the connections on the calling thread until the server is closed.
+     *
+     * @throws IOException If the selector fails.
+     */
+    public void serve() throws IOException {
+        try {
+            while (selector.isOpen()) {
+                selectAndServe();
+            }
+        } catch (ClosedSelectorException e) {
+            // the server was closed
+        }
+    }
+
+    /**
+     * Waits until a connection is ready or a response was completed by the scheduler and serves them.
+     */
+    private void selectAndServe() throws IOException {
+        selector.select();
+        if (!selector.isOpen()) return;
+        Connection connection;
+        while ((connection = completed.poll()) != null) {
+            connection.flush();
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) continue;
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            connection = (Connection) key.attachment();
+            try {
+                if (key.isReadable()) connection.read();
+                if (key.isValid() && key.isWritable()) connection.flush();
+            } catch (IOException e) {
+                connection.close();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    /**
+     * Handles one command and returns its response.
+     */
+    private CompletableFuture<String> handle(Connection connection, String line) {
+        String[] words = line.trim().split("\\s+");
+        try {
+            switch (words[0].toUpperCase()) {
+                case "NEW" -> {
+                    if (sessions.size() >= MAX_SESSIONS) return done("ERR too many sessions");
+                    GameSession session;
+                    if (words.length >= 2 && words[1].equalsIgnoreCase("PLAYER")) {
+                        int randomizer = words.length >= 3 ? randomizerOf(words[2]) : Randomizer.BAG;
+                        long seed = words.length >= 4 ? Long.parseLong(words[3]) : seeds.nextLong();
+                        session = GameSession.player(nextId++, randomizer, seed);
+                    } else if (words.length >= 3 && words[1].equalsIgnoreCase("BOT")) {
+                        int mode = Integer.parseInt(words[2]);
+                        if (mode < 1 || mode > 6) return done("ERR unknown bot mode " + mode);
+                        int randomizer = words.length >= 4 ? randomizerOf(words[3]) : Randomizer.BAG;
+                        long seed = words.length >= 5 ? Long.parseLong(words[4]) : seeds.nextLong();
+                        session = GameSession.bot(nextId++, mode, randomizer, seed);
+                    } else {
+                        return done("ERR usage: NEW PLAYER [randomizer] [seed] | NEW BOT <mode> [randomizer] [seed]");
+                    }
+                    sessions.put(session.getId(), session);
+                    connection.owned.add(session.getId());
+                    scheduler.add(session);
+                    return done("OK " + session.getId());
+                }
+                case "INPUT" -> {
+                    GameSession session = session(words);
+                    if (session == null || words.length < 3) return done("ERR usage: INPUT <id> <input>");
+                    GameInput input = inputOf(words[2]);
+                    return done(session.submit(input) ? "OK" : "ERR session " + session.getId() + " is a bot");
+                }
+                case "STATE" -> {
+                    GameSession session = session(words);
+                    if (session == null) return done("ERR usage: STATE <id>");
+                    return session.requestSnapshot()
+                            .thenApply(snapshot -> format(session, snapshot))
+                            .exceptionally(e -> "ERR session " + session.getId() + " was closed");
+                }
+                case "CLOSE" -> {
+                    GameSession session = session(words);
+                    if (session == null || !connection.owned.remove(session.getId())) {
+                        return done("ERR usage: CLOSE <id> of a session of this connection");
+                    }
+                    closeSession(session.getId());
+                    return done("OK");
+                }
+                case "SESSIONS" -> {
+                    return done("SESSIONS " + sessions.size() + " " + scheduler.getMissedTicks());
+                }
+                case "QUIT" -> {
+                    connection.closing = true;
+                    return done("BYE");
+                }
+                default -> {
+                    return done("ERR unknown command " + words[0]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // also thrown for malformed numbers and unknown inputs or randomizers
+            return done("ERR " + e.getMessage());
+        }
+    }
+
+    private static CompletableFuture<String> done(String response) {
+        return CompletableFuture.completedFuture(response);
+    }
+
+    private static int randomizerOf(String name) {
+        for (int kind = 0; kind < Randomizer.NAMES.length; kind++) {
+            if (Randomizer.NAMES[kind].equalsIgnoreCase(name)) return kind;
+        }
+        throw new IllegalArgumentException("unknown randomizer " + name);
+    }
+
+    private static GameInput inputOf(String name) {
+        for (GameInput input : GameInput.values()) {
+            if (input.name().equalsIgnoreCase(name)) return input;
+        }
+        throw new IllegalArgumentException("unknown input " + name);
+    }
+
+    private GameSession session(String[] words) {
+        if (words.length < 2) return null;
+        return sessions.get(Integer.parseInt(words[1]));
+    }
+
+    private void closeSession(int id) {
+        GameSession session = sessions.remove(id);
+        if (session != null) session.close();
+    }
+
+    /**
+     * Formats the answer to a {@code STATE} command.
+     */
+    static String format(GameSession session, GameSnapshot snapshot) {
+        Color[][] cells = snapshot.cells();
+        char[][] board = new char[cells.length][cells[0].length];
+        for (int row = 0; row < board.length; row++) {
+            for (int col = 0; col < board[row].length; col++) {
+                board[row][col] = cells[row][col] == null ? '.' : '#';
+            }
+        }
+        int[][] shape = snapshot.blockShape();
+        if (shape != null) {
+            for (int row = 0; row < shape.length; row++) {
+                int y = snapshot.blockY() + row;
+                if (y < 0 || y >= board.length) continue;
+                for (int col = 0; col < shape[row].length; col++) {
+                    if (shape[row][col] == 1) board[y][snapshot.blockX() + col] = '@';
+                }
+            }
+        }
+        StringBuilder result = new StringBuilder("STATE ").append(session.getId()).append(' ')
+                .append(snapshot.score()).append(session.isLost() ? " LOST " : " RUNNING ");
+        for (int row = 0; row < board.length; row++) {
+            if (row > 0) result.append('/');
+            result.append(board[row]);
+        }
+        return result.toString();
+    }
+
+    public int getPort() { return serverChannel.socket().getLocalPort(); }
+
+    /**
+     * Stops serving, closes all connections and ends all games.
+     */
+    @Override
+    public void close() throws IOException {
+        serverChannel.close();
+        selector.close();
+        for (GameSession session : sessions.values()) {
+            session.close();
+        }
+        scheduler.shutdown();
+    }
+
+    /**
+     * A connected client: the partial line it is sending and the responses it is waiting for, in order.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private final ByteBuffer input = ByteBuffer.allocate(1024);
+        private final StringBuilder line = new StringBuilder();
+        private final ArrayDeque<CompletableFuture<String>> responses = new ArrayDeque<>();
+        private final ArrayDeque<ByteBuffer> output = new ArrayDeque<>();
+        private final Set<Integer> owned = new HashSet<>();
+        private boolean closing;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads what the client sent and handles every complete line.
+         */
+        void read() throws IOException {
+            int read = channel.read(input);
+            if (read < 0) {
+                close();
+                return;
+            }
+            input.flip();
+            while (input.hasRemaining() && !closing) {
+                char c = (char) (input.get() & 0xFF);
+                if (c == '\n') {
+                    if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') line.setLength(line.length() - 1);
+                    if (!line.toString().isBlank()) respond(handle(this, line.toString()));
+                    line.setLength(0);
+                } else if (line.length() >= MAX_LINE) {
+                    respond(done("ERR line too long"));
+                    closing = true;
+                } else {
+                    line.append(c);
+                }
+            }
+            input.clear();
+            flush();
+        }
+
+        private void respond(CompletableFuture<String> response) {
+            responses.add(response);
+            if (!response.isDone()) {
+                response.whenComplete((result, e) -> {
+                    completed.add(this);
+                    selector.wakeup();
+                });
+            }
+        }
+
+        /**
+         * Writes the responses that are ready, in the order of the commands, as far as the client takes them.
+         */
+        void flush() {
+            if (!channel.isOpen()) return;
+            while (!responses.isEmpty() && responses.peek().isDone()) {
+                String response = responses.poll().getNow("ERR");
+                output.add(ByteBuffer.wrap((response + "\n").getBytes(StandardCharsets.US_ASCII)));
+            }
+            try {
+                while (!output.isEmpty()) {
+                    ByteBuffer buffer = output.peek();
+                    channel.write(buffer);
+                    if (buffer.hasRemaining()) break;
+                    output.poll();
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            if (closing && output.isEmpty() && responses.isEmpty()) {
+                close();
+            } else if (key.isValid()) {
+                key.interestOps(output.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        /**
+         * Closes the connection and ends the games started on it.
+         */
+        void close() {
+            for (int id : owned) {
+                closeSession(id);
+            }
+            owned.clear();
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Starts a server and serves until the JVM is stopped.
+     *
+     * @param args The port, {@value #DEFAULT_PORT} by default, and the number of threads ticking the games,
+     *             the number of cores by default.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        try (GameServer server = new GameServer(port, threads)) {
+            System.out.println("Serving games on " + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                    + server.getPort());
+            server.serve();
+        }
+    }
+}
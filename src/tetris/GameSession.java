@@ -0,0 +1,152 @@
+package tetris;
+
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * One headless game hosted by a {@link GameServer}: an engine of its own, played either by a remote player through
+ * queued inputs or by a bot. A session is ticked by exactly one thread of a {@link SessionScheduler}, which is the
+ * only thread that changes its engine. Other threads queue inputs and ask for snapshots, which the ticking thread
+ * takes at the end of its next tick. A bot places its blocks in the pool the ticking thread hands it, one at a time:
+ * while a block is in the pool, the pool has the engine and the ticking thread leaves it alone, so the snapshots wait
+ * until the block is placed.
+ */
+class GameSession {
+    private final int id;
+    private final GameEngine engine;
+    private final GameLoop loop;
+    // 0 for a session of a player, otherwise the bot mode
+    private final int botMode;
+    private final Queue<CompletableFuture<GameSnapshot>> snapshotRequests = new ConcurrentLinkedQueue<>();
+    // the block the bot places in the pool, null while none is
+    private CompletableFuture<Boolean> move;
+    private volatile boolean lost;
+    private volatile boolean closed;
+
+    private GameSession(int id, GameEngine engine, int botMode) {
+        this.id = id;
+        this.engine = engine;
+        this.botMode = botMode;
+        this.loop = botMode == 0 ? new GameLoop(engine) : null;
+        engine.setTickPolicy(TickPolicy.UNTHROTTLED);
+    }
+
+    /**
+     * Creates a session played by a remote player.
+     *
+     * @param id         The id of the session.
+     * @param randomizer The kind of randomizer dealing the blocks.
+     * @param seed       The seed of the randomizer.
+     * @return The session.
+     */
+    static GameSession player(int id, int randomizer, long seed) {
+        Random random = new Random(seed);
+        GameSession session = new GameSession(id, new GameEngine(Randomizer.create(randomizer, random), random), 0);
+        session.loop.start();
+        return session;
+    }
+
+    /**
+     * Creates a session played by a bot, which places at most one block per tick.
+     *
+     * @param id         The id of the session.
+     * @param mode       The bot mode, see {@link BotThread#BotThread(GameArea, int)}.
+     * @param randomizer The kind of randomizer dealing the blocks.
+     * @param seed       The seed of the game.
+     * @return The session.
+     */
+    static GameSession bot(int id, int mode, int randomizer, long seed) {
+        Random random = new Random(seed);
+        return new GameSession(id, new GameEngine(Randomizer.create(randomizer, random), random), mode);
+    }
+
+    /**
+     * Runs one tick of the game and answers the snapshot requests. Must be called by the thread ticking the session.
+     * The tick of a bot takes the block it placed since the last tick, if it is done, and hands the next one to the
+     * pool.
+     *
+     * @param skipped The number of ticks the scheduler was too late for since the last one.
+     * @param bots    The pool the bot places its blocks in.
+     * @throws CompletionException if the bot failed to place its block.
+     */
+    void tick(long skipped, Executor bots) {
+        if (loop != null) {
+            if (!lost) lost = !loop.tick(skipped);
+        } else if (move != null) {
+            if (!move.isDone()) return;
+            lost = !move.join();
+            move = null;
+        }
+        answerSnapshotRequests();
+        if (loop == null && !lost) move = CompletableFuture.supplyAsync(this::playBotBlock, bots);
+    }
+
+    /**
+     * Places a block of the bot. Runs in the pool of the bots.
+     *
+     * @return false if the game is lost.
+     */
+    private boolean playBotBlock() {
+        try {
+            return engine.playBotBlock(botMode);
+        } catch (InterruptedException e) {
+            // an unthrottled bot does not wait, so only a closing scheduler interrupts it
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private void answerSnapshotRequests() {
+        if (!snapshotRequests.isEmpty()) {
+            GameSnapshot snapshot = engine.publishSnapshot();
+            CompletableFuture<GameSnapshot> request;
+            while ((request = snapshotRequests.poll()) != null) {
+                request.complete(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Queues an input of the remote player. Can be called by any thread.
+     *
+     * @param input The input.
+     * @return false if the session is played by a bot and does not take inputs.
+     */
+    boolean submit(GameInput input) {
+        if (loop == null) return false;
+        engine.submit(input);
+        return true;
+    }
+
+    /**
+     * Asks for a snapshot of the game. Can be called by any thread.
+     *
+     * @return A future completed with a snapshot taken at the end of the next tick of the session.
+     */
+    CompletableFuture<GameSnapshot> requestSnapshot() {
+        CompletableFuture<GameSnapshot> request = new CompletableFuture<>();
+        snapshotRequests.add(request);
+        if (closed) request.cancel(false);
+        return request;
+    }
+
+    /**
+     * Marks the session as closed, so the scheduler stops ticking it.
+     */
+    void close() {
+        closed = true;
+        CompletableFuture<GameSnapshot> request;
+        while ((request = snapshotRequests.poll()) != null) {
+            request.cancel(false);
+        }
+    }
+
+    int getId() { return id; }
+    boolean isBot() { return loop == null; }
+    boolean isLost() { return lost; }
+    boolean isClosed() { return closed; }
+}
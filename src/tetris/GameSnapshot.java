@@ -0,0 +1,24 @@
+package tetris;
+
+import java.awt.*;
+
+/**
+ * An immutable picture of a game at one moment, published by the thread running a {@link GameEngine}
+ * so other threads can read the game without seeing it change half way.
+ * <p>
+ * None of the arrays may be modified. The rows of {@code cells} are shared with the board and with other snapshots,
+ * because the board replaces a row instead of changing it once the row was handed out.
+ *
+ * @param cells      The colors of the settled cells by row and column, null for an empty cell.
+ * @param blockShape The shape of the current block in its current rotation, null if there is no current block.
+ * @param blockColor The color of the current block.
+ * @param blockX     The column of the left edge of the current block.
+ * @param blockY     The row of the top edge of the current block.
+ * @param dropY      The row of the top edge of the current block if it was dropped.
+ * @param nextShape  The shape of the next block, null if there is none.
+ * @param nextColor  The color of the next block.
+ * @param score      The number of cleared lines.
+ */
+public record GameSnapshot(Color[][] cells, int[][] blockShape, Color blockColor, int blockX, int blockY, int dropY,
+                           int[][] nextShape, Color nextColor, int score) {
+}
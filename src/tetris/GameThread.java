@@ -1,44 +1,137 @@
 package tetris;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Represents the main game thread for the Tetris game.
  * This thread controls the game loop, handling the spawning of new blocks,
  * moving them down, and checking for game over conditions.
+ * It is the only thread that changes the engine: the inputs of the player are queued to it
+ * and applied at the start of every tick.
+ * <p>
+ * The loop runs the ticks of a {@link GameLoop} at a fixed timestep of {@value GameLoop#TICKS_PER_SECOND} ticks
+ * per second, measured with {@link System#nanoTime()} against the planned start of every tick, so the time spent
+ * rendering, clearing lines or playing sounds does not delay the following ticks. Ticks the loop wakes up too late for
+ * are skipped and counted as missed frames in the {@link FrameMetrics} of the thread, which are registered over JMX
+ * while the thread runs.
+ * <p>
+ * Every game is dealt by a freshly seeded {@link Randomizer} and recorded, and its replay is saved to the
+ * {@value #REPLAY_DIRECTORY} directory when the game is lost.
  */
 public class GameThread extends Thread {
+    /**
+     * The system property that makes the loop yield in a spin for the last moments before a tick instead of parking,
+     * trading a busy core for a more precise start of the ticks. Set it to {@code on} to enable spinning.
+     */
+    public static final String SPIN_PROPERTY = "tetris.spin";
+    public static final String REPLAY_DIRECTORY = "replays";
+    // how long before a tick the loop stops parking and spins, parking is not more precise than this
+    private static final long SPIN_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
     private final GameArea ga;
-    int pause = 1000;
+    private final GameEngine engine;
+    private final FrameMetrics metrics = new FrameMetrics();
+    private final boolean spin = "on".equalsIgnoreCase(System.getProperty(SPIN_PROPERTY));
+    private final int randomizer = Randomizer.selectedKind();
+    private final Random seeds = new Random();
+    private final GameLoop loop;
+    private ReplayRecorder recorder;
 
     /**
      * Constructs a GameThread with a reference to the game area.
      *
-     * @param ga The game area where the game logic will operate.
+     * @param ga The game area whose engine the game logic will operate on.
      */
-    public GameThread(GameArea ga) { this.ga = ga; }
+    public GameThread(GameArea ga) {
+        this.ga = ga;
+        this.engine = ga.getEngine();
+        this.loop = new GameLoop(engine);
+    }
 
     /**
      * The main execution method for the thread.
-     * Runs the game loop that spawns new blocks, moves them down,
+     * Runs the game loop that spawns new blocks, applies the inputs of the player, moves the blocks down,
      * and checks for game over conditions.
      */
     @Override
     public void run() {
+        metrics.register(getName());
+        engine.setFrameMetrics(metrics);
         try {
-            while (true) {
-                ga.spawnBlock();
-                while (ga.moveBlockDown()) {
-                    pause = ga.getPause();
-                    Thread.sleep(pause);
-                }
-                if (ga.isBlockOnTop()) {
+            startGame();
+            long nextTick = System.nanoTime();
+            long skipped = 0;
+            while (!isInterrupted()) {
+                long tickStart = System.nanoTime();
+                if (!loop.tick(skipped)) {
+                    saveReplay();
                     ga.gameOver(true);
-                    continue;
+                    startGame();
+                    // the time spent in the dialog is not a missed frame
+                    nextTick = System.nanoTime();
+                }
+                metrics.recordTick(System.nanoTime() - tickStart);
+                nextTick += GameLoop.TICK_NANOS;
+                skipped = 0;
+                long late = System.nanoTime() - nextTick;
+                if (late >= GameLoop.TICK_NANOS) {
+                    // skip the ticks that are over already, gravity still gets their time
+                    skipped = late / GameLoop.TICK_NANOS;
+                    metrics.recordMissedFrames(skipped);
+                    nextTick += skipped * GameLoop.TICK_NANOS;
                 }
-                ga.moveBlockToBackground();
-                ga.clearLine();
+                awaitTick(nextTick);
+            }
+        } finally {
+            engine.setFrameMetrics(null);
+            loop.setRecorder(null);
+            metrics.unregister();
+        }
+    }
+
+    /**
+     * Starts recording a new game with a freshly seeded randomizer and spawns its first block.
+     */
+    private void startGame() {
+        long seed = seeds.nextLong();
+        engine.setRandomizer(Randomizer.create(randomizer, new Random(seed)));
+        recorder = new ReplayRecorder(randomizer, seed);
+        loop.setRecorder(recorder);
+        loop.start();
+    }
+
+    /**
+     * Saves the replay of the lost game. A replay that cannot be saved is logged and lost, but the game goes on.
+     */
+    private void saveReplay() {
+        recorder.finish(engine.getScore());
+        try {
+            recorder.save(Path.of(REPLAY_DIRECTORY, "replay-" + System.currentTimeMillis() + ".trpl"));
+        } catch (IOException e) {
+            Log.warn("Could not save the replay of the lost game", e);
+        }
+    }
+
+    /**
+     * Waits until the start of a tick or until the thread is interrupted.
+     *
+     * @param tick The planned start of the tick, in the time of {@link System#nanoTime()}.
+     */
+    private void awaitTick(long tick) {
+        long remaining;
+        while ((remaining = tick - System.nanoTime()) > 0 && !isInterrupted()) {
+            if (!spin) {
+                LockSupport.parkNanos(remaining);
+            } else if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.yield();
             }
-        } catch (InterruptedException e) {
-            // The thread was interrupted, so stop the thread
         }
     }
+
+    public FrameMetrics getMetrics() { return metrics; }
 }
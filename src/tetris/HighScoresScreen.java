@@ -2,17 +2,11 @@ package tetris;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Represents the high scores screen in the Tetris game.
- * This class is responsible for displaying the top player scores.
+ * This class is responsible for displaying the top player scores, as kept by the {@link Leaderboard}.
  */
 public class HighScoresScreen extends JFrame {
 
@@ -30,30 +24,6 @@ public class HighScoresScreen extends JFrame {
         setVisible(true);
     }
 
-    /**
-     * Retrieves and returns a list of top players' scores.
-     *
-     * @return A sorted list of top players based on their scores.
-     */
-    private static List<Player> getTopScores() {
-        List<Player> players = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader("leaderboard.txt"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(" - ");
-                players.add(new Player(parts[0], Integer.parseInt(parts[1])));
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        // Sort the list and return the top N scores
-        return players.stream()
-                .sorted(Comparator.comparingInt(Player::score).reversed())
-                .limit(10)
-                .collect(Collectors.toList());
-    }
-
     /**
      * A record representing a player with a name and a score.
      */
@@ -89,7 +59,7 @@ public class HighScoresScreen extends JFrame {
             }
             g2.drawLine(300,150,300,700);
             // add data
-            List<Player> topPlayers = HighScoresScreen.getTopScores();
+            List<Player> topPlayers = Leaderboard.getDefault().getTopScores();
             g2.setFont(new Font("SansSerif", Font.BOLD, 30));
             for (int i = 0; i < topPlayers.size(); i++) {
                 g2.drawString(topPlayers.get(i).name, 100+20, 150+40+(55*i));
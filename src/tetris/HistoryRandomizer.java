@@ -0,0 +1,51 @@
+package tetris;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deals random blocks, drawing a shape up to {@value #DRAWS} times in all while it is among the
+ * {@value #HISTORY_SIZE} most recent ones, like the randomizer of TGM. This makes repeats rare without making the
+ * sequence predictable like a bag does.
+ */
+class HistoryRandomizer implements Randomizer {
+    private static final int HISTORY_SIZE = 4;
+    // the number of shapes drawn at most for one block, the first draw included
+    private static final int DRAWS = 6;
+    private final Random random;
+    // indices of the most recent shapes, the oldest first
+    private final int[] history = new int[HISTORY_SIZE];
+
+    /**
+     * Constructs a history randomizer.
+     *
+     * @param random The source of the random shapes.
+     */
+    HistoryRandomizer(Random random) {
+        this.random = random;
+        // no shape was dealt yet
+        Arrays.fill(history, -1);
+    }
+
+    @Override
+    public void fill(List<TetrisBlock> bag) {
+        int shape = random.nextInt(SHAPES.size());
+        for (int draw = 1; draw < DRAWS && inHistory(shape); draw++) {
+            shape = random.nextInt(SHAPES.size());
+        }
+        System.arraycopy(history, 1, history, 0, HISTORY_SIZE - 1);
+        history[HISTORY_SIZE - 1] = shape;
+        bag.add(SHAPES.get(shape).get());
+    }
+
+    private boolean inHistory(int shape) {
+        for (int recent : history) {
+            if (recent == shape) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int getKind() { return HISTORY; }
+}
@@ -0,0 +1,338 @@
+package tetris;
+
+import tetris.HighScoresScreen.Player;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the best scores of the players in memory and on disk.
+ * <p>
+ * The best {@link #CAPACITY} entries are kept in a bounded heap, so adding a score takes logarithmic time however many
+ * scores were ever added, and the {@value #DISPLAYED} best of them are published as an immutable list that screens can
+ * read at any time without touching the disk.
+ * <p>
+ * On disk, every added score is appended to a binary log and forced to the storage device before {@link #add} returns.
+ * After the magic number {@value #MAGIC} ("TLBD") and the version of the format, every entry is the length of the
+ * name in UTF-8 as an unsigned short, the name, the score as an int and the CRC32 of those bytes. An entry torn by a
+ * crash fails its check and is cut off the next time the log is loaded. When the log holds
+ * {@value #COMPACTION_THRESHOLD} more entries than the heap, it is compacted: the entries of the heap are written to
+ * a temporary file that atomically replaces the log. The scores of the old text leaderboard are migrated into
+ * a new log once. If writing the log fails, it is opened again and cut back to the entries that were written
+ * completely; if it cannot be opened again, the scores of the session are kept in memory only.
+ */
+public class Leaderboard implements Closeable {
+    /**
+     * The number of scores a leaderboard shows.
+     */
+    public static final int DISPLAYED = 10;
+    static final int CAPACITY = 100;
+    static final int COMPACTION_THRESHOLD = 1000;
+    static final int MAGIC = 0x544C4244;
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 5;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+    // the worst entry first: the lowest score, and of equal scores the one added last
+    private static final Comparator<Entry> WORST_FIRST = Comparator.comparingInt((Entry entry) -> entry.player().score())
+            .thenComparing(Comparator.comparingLong(Entry::sequence).reversed());
+    private final Path file;
+    private final int capacity;
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(WORST_FIRST);
+    private volatile List<Player> topScores = List.of();
+    private FileChannel channel;
+    private long sequence;
+    // the number of entries in the log
+    private long entries;
+    // the length of the log up to the end of the last entry that was written completely
+    private long written;
+    // the number of entries before the log is compacted again after compacting it failed
+    private long retryCompaction;
+
+    /**
+     * A score and the order it was added in, which decides between equal scores.
+     */
+    private record Entry(Player player, long sequence) {
+    }
+
+    /**
+     * Loads the default leaderboard on first use.
+     */
+    private static class Holder {
+        private static final Leaderboard DEFAULT = openDefault();
+    }
+
+    /**
+     * Opens a leaderboard, creating its log if it does not exist yet.
+     *
+     * @param file       The log of the leaderboard, or null to keep the scores in memory only.
+     * @param legacyFile A text leaderboard with a {@code name - score} line per score that is migrated into the log
+     *                   if the log does not exist yet, or null.
+     * @param capacity   The number of best scores that are kept.
+     * @throws IOException If the log cannot be read or written.
+     */
+    Leaderboard(Path file, Path legacyFile, int capacity) throws IOException {
+        this.file = file;
+        this.capacity = capacity;
+        if (file == null) return;
+        if (Files.exists(file)) {
+            load();
+        } else {
+            if (legacyFile != null && Files.exists(legacyFile)) {
+                for (Player player : readLegacy(legacyFile)) {
+                    offer(player);
+                }
+            }
+            writeCompacted();
+        }
+        publish();
+    }
+
+    /**
+     * Returns the leaderboard of the game, stored in {@code leaderboard.dat} next to the old {@code leaderboard.txt}.
+     * If the log cannot be opened, the scores of this session are kept in memory only.
+     *
+     * @return The leaderboard.
+     */
+    public static Leaderboard getDefault() {
+        return Holder.DEFAULT;
+    }
+
+    private static Leaderboard openDefault() {
+        try {
+            Leaderboard leaderboard = new Leaderboard(Path.of("leaderboard.dat"), Path.of("leaderboard.txt"), CAPACITY);
+            Runtime.getRuntime().addShutdownHook(new Thread(leaderboard::close, "Leaderboard shutdown"));
+            return leaderboard;
+        } catch (IOException e) {
+            Log.error("Could not open the leaderboard, keeping the scores of this session in memory only", e);
+            try {
+                return new Leaderboard(null, null, CAPACITY);
+            } catch (IOException impossible) {
+                throw new IllegalStateException(impossible);
+            }
+        }
+    }
+
+    /**
+     * Reads the scores of a text leaderboard, skipping the lines that are not a score.
+     */
+    private static List<Player> readLegacy(Path legacyFile) throws IOException {
+        List<Player> players = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(legacyFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.lastIndexOf(" - ");
+                if (separator < 0) continue;
+                try {
+                    players.add(new Player(line.substring(0, separator),
+                            Integer.parseInt(line.substring(separator + 3).trim())));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        return players;
+    }
+
+    /**
+     * Reads the log into the heap, cuts off a torn entry at its end and opens it for appending.
+     */
+    private void load() throws IOException {
+        long validSize = HEADER_SIZE;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException(file + " is not a leaderboard");
+            int version = in.readUnsignedByte();
+            if (version != VERSION) throw new IOException("Unsupported leaderboard version " + version);
+            CRC32 crc = new CRC32();
+            byte[] name = new byte[MAX_NAME_BYTES];
+            while (true) {
+                int length;
+                int score;
+                try {
+                    length = in.readUnsignedShort();
+                    in.readFully(name, 0, length);
+                    score = in.readInt();
+                    crc.reset();
+                    crc.update(length >>> 8);
+                    crc.update(length);
+                    crc.update(name, 0, length);
+                    crc.update(score >>> 24);
+                    crc.update(score >>> 16);
+                    crc.update(score >>> 8);
+                    crc.update(score);
+                    if (in.readInt() != (int) crc.getValue()) break;
+                } catch (EOFException e) {
+                    break;
+                }
+                offer(new Player(new String(name, 0, length, StandardCharsets.UTF_8), score));
+                entries++;
+                validSize += 2 + length + 2 * Integer.BYTES;
+            }
+        }
+        written = validSize;
+        openForAppending();
+    }
+
+    /**
+     * Opens the log for appending after the last entry that was written completely, cutting off anything after it.
+     */
+    private void openForAppending() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        if (channel.size() > written) {
+            channel.truncate(written);
+            channel.force(true);
+        }
+        channel.position(written);
+    }
+
+    /**
+     * Opens the log again after writing it failed, which may have left a torn entry behind or the channel closed.
+     * If it cannot be opened, the scores are kept in memory only from now on.
+     */
+    private void reopen() {
+        try {
+            if (channel != null) channel.close();
+            openForAppending();
+        } catch (IOException e) {
+            Log.error("Could not open " + file + " again, keeping the scores of this session in memory only", e);
+            channel = null;
+        }
+    }
+
+    /**
+     * Adds a score, appends it to the log and compacts the log if it grew too long.
+     * A score that cannot be written is still shown until the game is closed.
+     *
+     * @param name  The name of the player.
+     * @param score The score.
+     */
+    public synchronized void add(String name, int score) {
+        Player player = new Player(name, score);
+        offer(player);
+        publish();
+        if (channel == null) return;
+        try {
+            channel.write(encode(player));
+            channel.force(false);
+            entries++;
+            written = channel.position();
+        } catch (IOException e) {
+            Log.error("Could not write the score of " + name + " to " + file, e);
+            reopen();
+            return;
+        }
+        if (entries > heap.size() + COMPACTION_THRESHOLD && entries >= retryCompaction) {
+            try {
+                writeCompacted();
+            } catch (IOException e) {
+                Log.error("Could not compact " + file + ", appending to it as it is", e);
+                retryCompaction = entries + COMPACTION_THRESHOLD;
+                reopen();
+            }
+        }
+    }
+
+    /**
+     * Puts a score into the heap, dropping the worst score if the heap is full.
+     */
+    private void offer(Player player) {
+        Entry entry = new Entry(player, sequence++);
+        if (heap.size() < capacity) {
+            heap.add(entry);
+        } else if (WORST_FIRST.compare(entry, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(entry);
+        }
+    }
+
+    /**
+     * Publishes the best scores of the heap to the readers.
+     */
+    private void publish() {
+        topScores = heap.stream()
+                .sorted(WORST_FIRST.reversed())
+                .limit(DISPLAYED)
+                .map(Entry::player)
+                .toList();
+    }
+
+    /**
+     * Replaces the log by one holding only the entries of the heap, in the order they were added.
+     * The new log is written to a temporary file and forced to the storage device before it is moved over the old one,
+     * so a crash leaves either the old or the new log behind.
+     */
+    private void writeCompacted() throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        List<Entry> kept = new ArrayList<>(heap);
+        kept.sort(Comparator.comparingLong(Entry::sequence));
+        long size;
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).put((byte) VERSION).flip();
+            out.write(header);
+            for (Entry entry : kept) {
+                out.write(encode(entry.player()));
+            }
+            out.force(true);
+            size = out.size();
+        }
+        // the old log is closed first, since some systems cannot replace a file that is open
+        if (channel != null) channel.close();
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        entries = kept.size();
+        written = size;
+        openForAppending();
+    }
+
+    /**
+     * Closes the log. Scores added afterwards are kept in memory only.
+     */
+    @Override
+    public synchronized void close() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            Log.error("Could not close " + file, e);
+        }
+        channel = null;
+    }
+
+    /**
+     * Encodes an entry of the log. Names longer than the format allows are cut off after the last character that fits.
+     */
+    private static ByteBuffer encode(Player player) {
+        byte[] name = player.name().getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(name.length, MAX_NAME_BYTES);
+        // a continuation byte right after the cut belongs to a character that does not fit
+        while (length < name.length && (name[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 + length + 2 * Integer.BYTES);
+        buffer.putShort((short) length).put(name, 0, length).putInt(player.score());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        return buffer.putInt((int) crc.getValue()).flip();
+    }
+
+    /**
+     * Returns the best scores, best first. The list does not change; a new list is published when a score is added.
+     *
+     * @return Up to {@value #DISPLAYED} scores.
+     */
+    public List<Player> getTopScores() { return topScores; }
+}
@@ -0,0 +1,176 @@
+package tetris;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log messages of the game to the console without making the calling thread wait for it.
+ * <p>
+ * Messages below the level selected with {@value #LEVEL_PROPERTY} are discarded. The level is fixed when the class is
+ * loaded, so checks like {@link #isTraceEnabled()} are constants the JIT removes together with the code they guard,
+ * and building an expensive message, like a dump of the board, costs nothing while its level is disabled.
+ * <p>
+ * Enabled messages are added to a lock-free {@link LogBuffer}, and a background thread formats and writes them.
+ * The game threads never wait for the console or for each other. If the writer falls behind and the buffer fills up,
+ * new messages are dropped and counted, and the writer reports the number once it catches up. The remaining messages are
+ * written when the JVM shuts down. The writer sleeps while the buffer is empty, and the thread whose message finds it
+ * asleep wakes it up, so an idle game does not wake the writer at all.
+ */
+final class Log {
+    /**
+     * The system property selecting the lowest level written, for example {@code -Dtetris.log=debug}.
+     * Messages of level {@link Level#INFO} and above are written by default.
+     */
+    static final String LEVEL_PROPERTY = "tetris.log";
+    private static final int CAPACITY = 1 << 13;
+    private static final Level LEVEL = selectedLevel();
+    private static final boolean TRACE = LEVEL.compareTo(Level.TRACE) <= 0;
+    private static final boolean DEBUG = LEVEL.compareTo(Level.DEBUG) <= 0;
+    private static final boolean INFO = LEVEL.compareTo(Level.INFO) <= 0;
+
+    /**
+     * The levels of the messages, from the most to the least detailed.
+     */
+    enum Level {
+        /** Details of every step, like the candidates of a bot search. */
+        TRACE,
+        /** Decisions of the game and the bots. */
+        DEBUG,
+        /** Events worth noting in a normal run. */
+        INFO,
+        /** Problems the game recovers from. */
+        WARN,
+        /** Failures. */
+        ERROR,
+        /** Writes no messages at all. */
+        OFF
+    }
+
+    /**
+     * A message waiting to be written.
+     */
+    private record Message(Level level, long millis, String thread, String text, Throwable thrown) {
+    }
+
+    /**
+     * Starts the writer when the first message is logged, so runs that log nothing do not start a thread.
+     */
+    private static class Holder {
+        private static final LogBuffer<Message> BUFFER = new LogBuffer<>(CAPACITY);
+        private static final AtomicLong DROPPED = new AtomicLong();
+        // set while the writer sleeps or is about to, cleared by the thread that wakes it
+        private static final AtomicBoolean ASLEEP = new AtomicBoolean();
+        private static final Thread WRITER = new Thread(Log::write, "Log writer");
+        private static volatile boolean closing;
+
+        static {
+            WRITER.setDaemon(true);
+            WRITER.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                closing = true;
+                LockSupport.unpark(WRITER);
+                try {
+                    WRITER.join(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Log shutdown"));
+        }
+    }
+
+    private Log() {
+    }
+
+    static boolean isTraceEnabled() { return TRACE; }
+    static boolean isDebugEnabled() { return DEBUG; }
+    static boolean isInfoEnabled() { return INFO; }
+
+    /**
+     * Checks if messages of a level are written.
+     *
+     * @param level The level.
+     * @return true if the level is at or above the selected one.
+     */
+    static boolean isEnabled(Level level) {
+        return level != Level.OFF && level.compareTo(LEVEL) >= 0;
+    }
+
+    static void trace(String text) { if (TRACE) log(Level.TRACE, text, null); }
+    static void debug(String text) { if (DEBUG) log(Level.DEBUG, text, null); }
+    static void info(String text) { if (INFO) log(Level.INFO, text, null); }
+    static void warn(String text) { log(Level.WARN, text, null); }
+    static void warn(String text, Throwable thrown) { log(Level.WARN, text, thrown); }
+    static void error(String text, Throwable thrown) { log(Level.ERROR, text, thrown); }
+
+    /**
+     * Queues a message to be written if its level is enabled. Can be called by any thread and never waits.
+     *
+     * @param level  The level of the message.
+     * @param text   The message.
+     * @param thrown An exception whose stack trace is written after the message, or null.
+     */
+    static void log(Level level, String text, Throwable thrown) {
+        if (!isEnabled(level)) return;
+        Message message = new Message(level, System.currentTimeMillis(), Thread.currentThread().getName(), text, thrown);
+        if (!Holder.BUFFER.offer(message)) {
+            Holder.DROPPED.incrementAndGet();
+        }
+        if (Holder.ASLEEP.get() && Holder.ASLEEP.compareAndSet(true, false)) {
+            LockSupport.unpark(Holder.WRITER);
+        }
+    }
+
+    /**
+     * Writes the queued messages until the JVM shuts down. Runs on the writer thread.
+     */
+    private static void write() {
+        PrintStream out = System.out;
+        while (true) {
+            boolean closing = Holder.closing;
+            Message message;
+            boolean wrote = false;
+            while ((message = Holder.BUFFER.poll()) != null) {
+                print(out, message);
+                wrote = true;
+            }
+            long dropped = Holder.DROPPED.getAndSet(0);
+            if (dropped > 0) {
+                print(out, new Message(Level.WARN, System.currentTimeMillis(), Thread.currentThread().getName(),
+                        dropped + " log messages were dropped because the writer fell behind", null));
+            }
+            if (wrote || dropped > 0) out.flush();
+            if (closing) return;
+            Holder.ASLEEP.set(true);
+            // a message queued before the flag was set is seen here, one queued after it wakes the writer
+            if (Holder.BUFFER.isEmpty() && Holder.DROPPED.get() == 0 && !Holder.closing) {
+                LockSupport.park();
+            }
+            Holder.ASLEEP.set(false);
+        }
+    }
+
+    private static void print(PrintStream out, Message message) {
+        LocalTime time = LocalTime.ofInstant(Instant.ofEpochMilli(message.millis()), ZoneId.systemDefault());
+        out.printf("%s %-5s [%s] %s%n", time, message.level(), message.thread(), message.text());
+        if (message.thrown() != null) message.thrown().printStackTrace(out);
+    }
+
+    /**
+     * Reads the level selected with {@value #LEVEL_PROPERTY}.
+     */
+    private static Level selectedLevel() {
+        String level = System.getProperty(LEVEL_PROPERTY);
+        if (level == null) return Level.INFO;
+        try {
+            return Level.valueOf(level.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown log level " + level + ", using " + Level.INFO);
+            return Level.INFO;
+        }
+    }
+}
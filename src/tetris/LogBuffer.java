@@ -0,0 +1,93 @@
+package tetris;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded ring buffer that many threads add to and one thread takes from, without locks.
+ * <p>
+ * Every slot has a sequence number telling whose turn it is. A producer claims the next position with a
+ * compare-and-set of the tail, stores its element in the slot and then publishes it by advancing the sequence of the
+ * slot, which the consumer reads before the element. The consumer frees the slot by advancing the sequence by one
+ * round of the buffer. A full buffer rejects new elements instead of waiting, so producers never block.
+ *
+ * @param <T> The type of the elements.
+ */
+class LogBuffer<T> {
+    private final int mask;
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // only read and written by the consumer
+    private long head;
+
+    /**
+     * Constructs an empty buffer.
+     *
+     * @param capacity The number of elements the buffer holds, a power of two.
+     */
+    LogBuffer(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        mask = capacity - 1;
+        elements = new Object[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is room. Can be called by any thread.
+     *
+     * @param element The element.
+     * @return false if the buffer is full and the element was not added.
+     */
+    boolean offer(T element) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long turn = sequences.get(slot) - position;
+            if (turn == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[slot] = element;
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (turn < 0) {
+                // the consumer has not freed the slot of the previous round yet
+                return false;
+            } else {
+                // another producer claimed the position first
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Checks if there is no element to take. Must only be called by the consumer thread.
+     *
+     * @return true if {@link #poll()} would return null.
+     */
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    /**
+     * Takes the oldest element. Must only be called by the consumer thread.
+     *
+     * @return The element, or null if the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        int slot = (int) head & mask;
+        if (sequences.get(slot) != head + 1) return null;
+        T element = (T) elements[slot];
+        elements[slot] = null;
+        sequences.set(slot, head + mask + 1);
+        head++;
+        return element;
+    }
+}
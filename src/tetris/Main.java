@@ -58,7 +58,15 @@ public class Main {
         botChoice.addItem("Random Bot");
         botChoice.addItem("Heuristic Bot");
         botChoice.addItem("Heuristic Bot with knowledge of next move");
+        botChoice.addItem("Heuristic Bot with deeper lookahead");
+        botChoice.addItem("Heuristic Bot with tucks and slides");
+        botChoice.addItem("Heuristic Bot aiming for perfect clears");
+        JComboBox<String> speedChoice = new JComboBox<>();
+        speedChoice.addItem("Real time");
+        speedChoice.addItem("60 fps");
+        speedChoice.addItem("Unthrottled");
         botPanel.add(botChoice);
+        botPanel.add(speedChoice);
         botPanel.add(playAsABot);
 
         JPanel sequencePanel = new JPanel(new GridBagLayout());
@@ -97,12 +105,24 @@ public class Main {
         playAsABot.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                TickPolicy tickPolicy = TickPolicy.REAL_TIME;
+                if (Objects.equals(speedChoice.getSelectedItem(), "60 fps")) {
+                    tickPolicy = TickPolicy.fixedRate(60);
+                } else if (Objects.equals(speedChoice.getSelectedItem(), "Unthrottled")) {
+                    tickPolicy = TickPolicy.unthrottled(10);
+                }
                 if (Objects.equals(botChoice.getSelectedItem(), "Random Bot")) {
-                    new BotScreen(1, darkMode);
+                    new BotScreen(1, darkMode, tickPolicy);
                 } else if (Objects.equals(botChoice.getSelectedItem(), "Heuristic Bot")) {
-                    new BotScreen(2, darkMode);
+                    new BotScreen(2, darkMode, tickPolicy);
                 } else if ((Objects.equals(botChoice.getSelectedItem(), "Heuristic Bot with knowledge of next move"))) {
-                    new BotScreen(3, darkMode);
+                    new BotScreen(3, darkMode, tickPolicy);
+                } else if (Objects.equals(botChoice.getSelectedItem(), "Heuristic Bot with deeper lookahead")) {
+                    new BotScreen(4, darkMode, tickPolicy);
+                } else if (Objects.equals(botChoice.getSelectedItem(), "Heuristic Bot with tucks and slides")) {
+                    new BotScreen(5, darkMode, tickPolicy);
+                } else if (Objects.equals(botChoice.getSelectedItem(), "Heuristic Bot aiming for perfect clears")) {
+                    new BotScreen(6, darkMode, tickPolicy);
                 }
             }
         });
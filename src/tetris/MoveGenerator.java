@@ -0,0 +1,210 @@
+package tetris;
+
+import blocks.PlacementTable;
+
+import java.util.Arrays;
+
+/**
+ * Finds every position a block can lock in, together with the inputs that steer it there.
+ * <p>
+ * The generator searches the states of the block, its column, row and rotation, breadth first from where the block
+ * is now. From every state it tries the inputs a player has, with the same rules as {@link GameEngine}: moving left,
+ * right and down, dropping, and rotating, which shifts and clamps the block like {@code GameEngine.tryRotate()} and
+ * is reverted if it collides. A state the block cannot move down from is a lock position. The block can still move on
+ * from it, so it can slide along the stack and tuck under overhangs that a straight drop never reaches.
+ * <p>
+ * Visited states are marked in a bit set and remember the state and the input they were reached from, so every state is
+ * searched once and the path to a lock position is read back from the links. Rotations that look the same lock in the
+ * same cells, so lock positions are told apart by their canonical rotation, column and row and every distinct one is
+ * listed once, with the shortest path to it. All arrays are preallocated for boards of one size, so generating the
+ * moves does not allocate. An instance is not thread-safe.
+ */
+class MoveGenerator {
+    // the rows above the board a block can reach when it rotates right after spawning
+    private static final int MARGIN = 5;
+    private static final GameInput[] INPUTS = GameInput.values();
+    private final int width;
+    private final int height;
+    private final long[] visited;
+    // the states whose collision was tested and those of them the block fits in
+    private final long[] tested;
+    private final long[] free;
+    private final long[] listed;
+    // the positions to search, packed like the lock positions, so they are unpacked without divisions
+    private final int[] queue;
+    // per visited state, the position it was reached from and the ordinal of the input that did it
+    private final int[] parents;
+    private final byte[] inputs;
+    private final int[] locks;
+    private final int[] lockPositions;
+    private int lockCount;
+
+    /**
+     * Constructs a generator for boards of the given size.
+     *
+     * @param width  The width of the board.
+     * @param height The height of the board.
+     */
+    MoveGenerator(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int states = PlacementTable.ROTATIONS * (height + MARGIN) * width;
+        visited = new long[(states + Long.SIZE - 1) / Long.SIZE];
+        tested = new long[visited.length];
+        free = new long[visited.length];
+        listed = new long[visited.length];
+        queue = new int[states];
+        parents = new int[states];
+        inputs = new byte[states];
+        locks = new int[states];
+        lockPositions = new int[states];
+    }
+
+    /**
+     * Finds the distinct lock positions of a block reachable from its current state.
+     * They can then be read with {@link #getLock(int)} and {@link #getPath(int)} until the next call.
+     *
+     * @param rows     The row masks of the field.
+     * @param heights  The column heights of the field, see {@link FieldStats#getHeights()}.
+     * @param block    The block. Only its shape is used.
+     * @param x        The current column of the block.
+     * @param y        The current row of the block, at most {@value #MARGIN} rows above the board.
+     * @param rotation The current rotation of the block.
+     * @return The number of lock positions, 0 if the block collides where it is.
+     */
+    int generate(long[] rows, int[] heights, TetrisBlock block, int x, int y, int rotation) {
+        if (y < -MARGIN) throw new IllegalArgumentException("Block too far above the board: " + y);
+        Arrays.fill(visited, 0);
+        Arrays.fill(tested, 0);
+        Arrays.fill(free, 0);
+        Arrays.fill(listed, 0);
+        lockCount = 0;
+        if (!fits(rows, block.getMasks(rotation), rotation, x, y)) return 0;
+        PlacementTable table = block.getTable();
+        visit(state(rotation, x, y), -1, 0);
+        int tail = 0;
+        queue[tail++] = position(rotation, x, y);
+        for (int head = 0; head < tail; head++) {
+            int position = queue[head];
+            rotation = MoveSearch.rotationOf(position);
+            x = MoveSearch.xOf(position);
+            y = MoveSearch.yOf(position);
+            int state = state(rotation, x, y);
+            int[] masks = block.getMasks(rotation);
+            // rotate
+            int newRotation = rotation == 3 ? 0 : rotation + 1;
+            int newX = x + block.getRotationShiftX(newRotation);
+            int newY = y + block.getRotationShiftY(newRotation);
+            if (newX < 0) newX = 0;
+            if (newX + block.getWidth(newRotation) >= width) newX = width - block.getWidth(newRotation);
+            if (newY + block.getHeight(newRotation) >= height) newY = height - block.getHeight(newRotation);
+            if (newY >= -MARGIN) {
+                tail = enqueue(rows, block.getMasks(newRotation), newRotation, newX, newY, position, GameInput.ROTATE,
+                        tail);
+            }
+            // shift
+            if (x > 0) tail = enqueue(rows, masks, rotation, x - 1, y, position, GameInput.LEFT, tail);
+            if (x + block.getWidth(rotation) < width) {
+                tail = enqueue(rows, masks, rotation, x + 1, y, position, GameInput.RIGHT, tail);
+            }
+            if (!fits(rows, masks, rotation, x, y + 1)) {
+                // the block rests here, list the cells it locks in once
+                int lock = state(table.getCanonicalRotation(rotation), x, y);
+                if ((listed[lock >>> 6] & 1L << lock) == 0) {
+                    listed[lock >>> 6] |= 1L << lock;
+                    locks[lockCount] = position(table.getCanonicalRotation(rotation), x, y);
+                    lockPositions[lockCount++] = position;
+                }
+                continue;
+            }
+            // drop, unless the block came down already and its parent dropped it to the same row
+            int input = inputs[state];
+            if (parents[state] == -1 || input != GameInput.DOWN.ordinal() && input != GameInput.DROP.ordinal()) {
+                // straight onto the column tops, unless the block is already below one of them
+                int dropY = table.landingRow(rotation, x, heights, height);
+                if (dropY < y) {
+                    dropY = y + 1;
+                    while (fits(rows, masks, rotation, x, dropY + 1)) {
+                        dropY++;
+                    }
+                }
+                if (dropY > y + 1) tail = enqueue(rows, masks, rotation, x, dropY, position, GameInput.DROP, tail);
+            }
+            tail = enqueue(rows, masks, rotation, x, y + 1, position, GameInput.DOWN, tail);
+        }
+        return lockCount;
+    }
+
+    /**
+     * Queues a position that was not visited yet if the block fits in it.
+     *
+     * @return The new end of the queue.
+     */
+    private int enqueue(long[] rows, int[] masks, int rotation, int x, int y, int parent, GameInput input, int tail) {
+        int state = state(rotation, x, y);
+        if ((visited[state >>> 6] & 1L << state) != 0 || !fits(rows, masks, rotation, x, y)) return tail;
+        visit(state, parent, input.ordinal());
+        queue[tail] = position(rotation, x, y);
+        return tail + 1;
+    }
+
+    /**
+     * Checks if the block fits in a position inside the walls, testing every position only once per search.
+     */
+    private boolean fits(long[] rows, int[] masks, int rotation, int x, int y) {
+        if (y + masks.length > height) return false;
+        int state = state(rotation, x, y);
+        long bit = 1L << state;
+        if ((tested[state >>> 6] & bit) == 0) {
+            tested[state >>> 6] |= bit;
+            if (!Board.collides(rows, width, masks, x, y)) free[state >>> 6] |= bit;
+        }
+        return (free[state >>> 6] & bit) != 0;
+    }
+
+    private void visit(int state, int parent, int input) {
+        visited[state >>> 6] |= 1L << state;
+        parents[state] = parent;
+        inputs[state] = (byte) input;
+    }
+
+    private int state(int rotation, int x, int y) {
+        return (rotation * (height + MARGIN) + y + MARGIN) * width + x;
+    }
+
+    private int stateOf(int position) {
+        return state(MoveSearch.rotationOf(position), MoveSearch.xOf(position), MoveSearch.yOf(position));
+    }
+
+    private static int position(int rotation, int x, int y) {
+        return rotation << 24 | x << 16 | (y & 0xFFFF);
+    }
+
+    /**
+     * Returns a lock position found by the last call of {@link #generate(long[], int[], TetrisBlock, int, int, int)}.
+     *
+     * @param index The index of the lock position, in the order they were reached.
+     * @return The canonical rotation, column and row of the lock position, packed like {@link MoveSearch#land} does.
+     */
+    int getLock(int index) { return locks[index]; }
+
+    /**
+     * Returns the inputs that steer the block from the state it was generated from to a lock position.
+     * Applied in order, they leave the block resting in the lock position, shown in a rotation that may differ
+     * from the canonical one.
+     *
+     * @param index The index of the lock position.
+     * @return A new array with the shortest sequence of inputs, empty if the block rests where it was.
+     */
+    GameInput[] getPath(int index) {
+        int length = 0;
+        for (int state = stateOf(lockPositions[index]); parents[state] != -1; state = stateOf(parents[state])) {
+            length++;
+        }
+        GameInput[] path = new GameInput[length];
+        for (int state = stateOf(lockPositions[index]); parents[state] != -1; state = stateOf(parents[state])) {
+            path[--length] = INPUTS[inputs[state]];
+        }
+        return path;
+    }
+}
@@ -0,0 +1,342 @@
+package tetris;
+
+import blocks.PlacementTable;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the best move for the heuristic bots.
+ * The search simulates every distinct placement of the block's {@link PlacementTable} without touching the live block.
+ * Candidates are rated by a {@link WeightProfile}. If it only weighs the lines, the height and the holes, they are rated
+ * incrementally from the {@link FieldStats} of the field they are placed on, otherwise they are placed on a scratch
+ * board first. Fields that are searched further are kept on preallocated scratch boards as well,
+ * so looking for a move does not allocate any objects.
+ * A search is built for boards of one size. An instance is not thread-safe.
+ * <p>
+ * The serial two-ply search caches the best score of placing the next block on a field in a transposition table,
+ * so fields reached by different first moves, in this turn or an earlier one, are only searched once.
+ * <p>
+ * When a pool is set, the two-ply search rates the first moves as independent tasks over a snapshot of the field
+ * instead. Each task uses its own scratch boards and the results are reduced in placement order,
+ * so the chosen move is the same as with the serial search.
+ * <p>
+ * The placements of a table are reached by rotating and shifting the block before dropping it. To also find the
+ * positions under overhangs, the two-ply search can instead rate every lock position a {@link MoveGenerator}
+ * reaches and return the inputs that steer the block there.
+ */
+class MoveSearch {
+    private final int width;
+    private final int height;
+    private final WeightProfile profile;
+    // scratch boards and statistics of the fields after the first and the second block
+    private final long[] firstResult, secondResult;
+    private final FieldStats firstStats, secondStats;
+    private final TranspositionTable table = new TranspositionTable(1 << 16);
+    private final MoveGenerator generator;
+    private ForkJoinPool pool;
+    private int candidates;
+
+    /**
+     * Constructs a search for boards of the given size.
+     *
+     * @param width   The width of the board.
+     * @param height  The height of the board.
+     * @param profile The weights the fields are rated by.
+     */
+    MoveSearch(int width, int height, WeightProfile profile) {
+        this.width = width;
+        this.height = height;
+        this.profile = profile;
+        firstResult = new long[height];
+        secondResult = new long[height];
+        firstStats = new FieldStats(width, height);
+        secondStats = new FieldStats(width, height);
+        generator = new MoveGenerator(width, height);
+    }
+
+    /**
+     * Sets the pool the two-ply search is fanned out on.
+     *
+     * @param pool The pool, or null to search serially without allocating.
+     */
+    void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Finds the placement that leads to the best rated field for the given block.
+     *
+     * @param rows  The row masks of the current field.
+     * @param stats The statistics of the current field.
+     * @param block The block to be placed, at its current position.
+     * @return The best placement, as packed by {@link PlacementTable#placement(int, int)}.
+     */
+    int findBestMove(long[] rows, FieldStats stats, TetrisBlock block) {
+        int[] placements = block.getTable().getPlacements(width);
+        candidates = placements.length;
+        int bestScore = Integer.MIN_VALUE;
+        int bestScoreIndex = 0;
+        for (int i = 0; i < placements.length; i++) {
+            int landing = land(rows, width, stats.getHeights(), block, block.getX(), block.getY(), block.getCurrentRotation(), placements[i]);
+            int score = ratePlacement(rows, stats, block.getMasks(rotationOf(landing)), xOf(landing), yOf(landing),
+                    firstResult, firstStats);
+            if (Log.isTraceEnabled()) {
+                System.arraycopy(rows, 0, firstResult, 0, height);
+                Board.place(firstResult, block.getMasks(rotationOf(landing)), xOf(landing), yOf(landing));
+                Log.trace(formatField(firstResult) + "Score: " + score);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestScoreIndex = i;
+            }
+        }
+        if (Log.isDebugEnabled()) Log.debug("Best score: " + bestScore + ". Index: " + bestScoreIndex);
+        return placements[bestScoreIndex];
+    }
+
+    /**
+     * Finds the placement that leads to the best rated field after placing both the given block and the next block.
+     *
+     * @param rows      The row masks of the current field.
+     * @param stats     The statistics of the current field.
+     * @param block     The block to be placed, at its current position.
+     * @param nextBlock The block that will be spawned after the current one.
+     * @return The best placement for the current block, as packed by {@link PlacementTable#placement(int, int)}.
+     */
+    int findBestMove(long[] rows, FieldStats stats, TetrisBlock block, TetrisBlock nextBlock) {
+        int x = block.getX();
+        int y = block.getY();
+        int rotation = block.getCurrentRotation();
+        int[] placements = block.getTable().getPlacements(width);
+        candidates = placements.length;
+        int[] scores;
+        if (pool == null) {
+            scores = new int[placements.length];
+            for (int i = 0; i < placements.length; i++) {
+                scores[i] = rateMove(rows, stats, block, x, y, rotation, placements[i], nextBlock,
+                        firstResult, firstStats, secondResult, secondStats, table);
+            }
+        } else {
+            long[] snapshot = rows.clone();
+            FieldStats snapshotStats = new FieldStats(width, height);
+            snapshotStats.copyFrom(stats);
+            scores = pool.submit(() -> IntStream.range(0, placements.length)
+                    .parallel()
+                    .map(i -> rateMove(snapshot, snapshotStats, block, x, y, rotation, placements[i], nextBlock,
+                            new long[height], new FieldStats(width, height), new long[height],
+                            new FieldStats(width, height), null))
+                    .toArray()).join();
+        }
+        // reduce in placement order so that ties always go to the first placement
+        int bestScore = Integer.MIN_VALUE;
+        int bestScoreIndex = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > bestScore) {
+                bestScore = scores[i];
+                bestScoreIndex = i;
+            }
+        }
+        if (Log.isDebugEnabled()) Log.debug("Best score: " + bestScore + ". Index: " + bestScoreIndex);
+        return placements[bestScoreIndex];
+    }
+
+    /**
+     * Finds the lock position that leads to the best rated field after placing both the given block and the next block,
+     * like {@link #findBestMove(long[], FieldStats, TetrisBlock, TetrisBlock)} but out of every position the
+     * {@link MoveGenerator} can steer the block to, including slides and tucks under overhangs. Always searches
+     * serially.
+     *
+     * @param rows      The row masks of the current field.
+     * @param stats     The statistics of the current field.
+     * @param block     The block to be placed, at its current position.
+     * @param nextBlock The block that will be spawned after the current one.
+     * @return The inputs that steer the block to the best lock position, see {@link MoveGenerator#getPath(int)}.
+     */
+    GameInput[] findBestPath(long[] rows, FieldStats stats, TetrisBlock block, TetrisBlock nextBlock) {
+        int locks = generator.generate(rows, stats.getHeights(), block, block.getX(), block.getY(), block.getCurrentRotation());
+        candidates = locks;
+        if (locks == 0) return new GameInput[0];
+        int bestScore = Integer.MIN_VALUE;
+        int bestScoreIndex = 0;
+        for (int i = 0; i < locks; i++) {
+            int lock = generator.getLock(i);
+            System.arraycopy(rows, 0, firstResult, 0, height);
+            firstStats.copyFrom(stats);
+            firstStats.place(firstResult, block.getMasks(rotationOf(lock)), xOf(lock), yOf(lock));
+            int score = rateNext(firstResult, firstStats, nextBlock, secondResult, secondStats, table);
+            if (score > bestScore) {
+                bestScore = score;
+                bestScoreIndex = i;
+            }
+        }
+        if (Log.isDebugEnabled()) {
+            Log.debug("Best score: " + bestScore + ". Index: " + bestScoreIndex + " of " + locks);
+        }
+        return generator.getPath(bestScoreIndex);
+    }
+
+    /**
+     * Rates a first placement by the best field that can be reached by placing the next block after it.
+     * Only reads the given field and block, so it may run concurrently for different placements.
+     *
+     * @param rows         The row masks of the current field.
+     * @param stats        The statistics of the current field.
+     * @param block        The block to be placed.
+     * @param x            The current column of the block.
+     * @param y            The current row of the block.
+     * @param rotation     The current rotation of the block.
+     * @param placement    The first placement.
+     * @param nextBlock    The block that will be spawned after the current one.
+     * @param firstResult  Scratch array for the field after the first placement.
+     * @param firstStats   Scratch statistics of that field.
+     * @param secondResult Scratch array for rating the placements of the next block.
+     * @param secondStats  Scratch statistics of that field.
+     * @param table        The table caching the scores of fields, or null when running concurrently.
+     * @return The score of the best field reachable after the first placement.
+     */
+    private int rateMove(long[] rows, FieldStats stats, TetrisBlock block, int x, int y, int rotation, int placement,
+                         TetrisBlock nextBlock, long[] firstResult, FieldStats firstStats, long[] secondResult,
+                         FieldStats secondStats, TranspositionTable table) {
+        int landing = land(rows, width, stats.getHeights(), block, x, y, rotation, placement);
+        System.arraycopy(rows, 0, firstResult, 0, height);
+        firstStats.copyFrom(stats);
+        firstStats.place(firstResult, block.getMasks(rotationOf(landing)), xOf(landing), yOf(landing));
+        if (Log.isTraceEnabled()) Log.trace(formatField(firstResult));
+        return rateNext(firstResult, firstStats, nextBlock, secondResult, secondStats, table);
+    }
+
+    /**
+     * Rates a field by the best field that can be reached by placing the next block on it.
+     *
+     * @param rows         The row masks of the field.
+     * @param stats        The statistics of the field.
+     * @param nextBlock    The block that will be spawned next.
+     * @param scratch      Scratch array for rating the placements of the next block.
+     * @param scratchStats Scratch statistics of that field.
+     * @param table        The table caching the scores of fields, or null when running concurrently.
+     * @return The score of the best field reachable by placing the next block.
+     */
+    private int rateNext(long[] rows, FieldStats stats, TetrisBlock nextBlock, long[] scratch, FieldStats scratchStats,
+                         TranspositionTable table) {
+        int bestScore = Integer.MIN_VALUE;
+        long key = 0;
+        if (table != null) {
+            key = TranspositionTable.hash(rows) ^ nextBlock.getKey();
+            int cached = table.get(key);
+            if (cached != TranspositionTable.NOT_FOUND) return cached;
+        }
+        for (int secondPlacement : nextBlock.getTable().getPlacements(width)) {
+            int secondLanding = land(rows, width, stats.getHeights(), nextBlock, nextBlock.getSpawnX(width),
+                    TetrisBlock.SPAWN_Y, TetrisBlock.SPAWN_ROTATION, secondPlacement);
+            int score = ratePlacement(rows, stats, nextBlock.getMasks(rotationOf(secondLanding)),
+                    xOf(secondLanding), yOf(secondLanding), scratch, scratchStats);
+            if (Log.isTraceEnabled()) Log.trace("Score: " + score);
+            bestScore = Math.max(bestScore, score);
+        }
+        if (table != null) table.put(key, bestScore);
+        return bestScore;
+    }
+
+    /**
+     * Rates the field a shape would leave behind by the profile of the search, the same as
+     * {@link FieldStats#rate(WeightProfile, long[])} of the field with the shape placed plus its landing height.
+     *
+     * @param rows         The row masks of the field.
+     * @param stats        The statistics of the field.
+     * @param masks        The row masks of the shape.
+     * @param x            The column of the left edge of the shape.
+     * @param y            The row of the top edge of the shape.
+     * @param scratch      Scratch array for the resulting field, unused if the profile is rated incrementally.
+     * @param scratchStats Scratch statistics of that field.
+     * @return The score of the resulting field.
+     */
+    private int ratePlacement(long[] rows, FieldStats stats, int[] masks, int x, int y, long[] scratch,
+                              FieldStats scratchStats) {
+        if (profile.isIncremental()) return stats.ratePlacement(rows, masks, x, y, profile);
+        System.arraycopy(rows, 0, scratch, 0, height);
+        scratchStats.copyFrom(stats);
+        scratchStats.place(scratch, masks, x, y);
+        return scratchStats.rate(profile, scratch) + profile.landingHeight() * (height - y - masks.length + 1);
+    }
+
+    /**
+     * Simulates steering a block to a placement followed by a drop and finds where the block comes to rest.
+     * The block is steered the same way {@code GameEngine} carries a placement out: it is rotated until it shows the
+     * rotation of the placement, then shifted towards its column. Rotations that collide are reverted and shifts into
+     * a wall or another block stop the shifting, so the block can end up somewhere else when the way is blocked.
+     *
+     * @param rows      The row masks of the field.
+     * @param width     The width of the field.
+     * @param heights   The column heights of the field, see {@link FieldStats#getHeights()}.
+     * @param block     The block to be placed. Only its shape is used.
+     * @param x         The starting column of the block.
+     * @param y         The starting row of the block.
+     * @param rotation  The starting rotation of the block.
+     * @param placement The placement, as packed by {@link PlacementTable#placement(int, int)}.
+     * @return The rotation, column and row the block lands on, read with {@link #rotationOf(int)},
+     * {@link #xOf(int)} and {@link #yOf(int)}.
+     */
+    static int land(long[] rows, int width, int[] heights, TetrisBlock block, int x, int y, int rotation, int placement) {
+        PlacementTable table = block.getTable();
+        int targetRotation = PlacementTable.rotationOf(placement);
+        int targetX = PlacementTable.xOf(placement);
+        for (int i = 1; i < PlacementTable.ROTATIONS && table.getCanonicalRotation(rotation) != targetRotation; i++) {
+            int newRotation = rotation == 3 ? 0 : rotation + 1;
+            int newX = x + block.getRotationShiftX(newRotation);
+            int newY = y + block.getRotationShiftY(newRotation);
+            if (newX < 0) newX = 0;
+            if (newX + block.getWidth(newRotation) >= width) newX = width - block.getWidth(newRotation);
+            if (newY + block.getHeight(newRotation) >= rows.length) newY = rows.length - block.getHeight(newRotation);
+            // check rotate collision
+            if (!Board.collides(rows, width, block.getMasks(newRotation), newX, newY)) {
+                rotation = newRotation;
+                x = newX;
+                y = newY;
+            }
+        }
+        int[] masks = block.getMasks(rotation);
+        while (x > targetX && !Board.collides(rows, width, masks, x - 1, y)) {
+            x--;
+        }
+        while (x < targetX && !Board.collides(rows, width, masks, x + 1, y)) {
+            x++;
+        }
+        // drop: straight onto the column tops, unless the block is already below one of them
+        int landingY = table.landingRow(rotation, x, heights, rows.length);
+        if (landingY >= y) {
+            y = landingY;
+        } else {
+            while (!Board.collides(rows, width, masks, x, y + 1)) {
+                y++;
+            }
+        }
+        return rotation << 24 | x << 16 | (y & 0xFFFF);
+    }
+
+    static int rotationOf(int landing) { return landing >>> 24; }
+    static int xOf(int landing) { return landing >>> 16 & 0xFF; }
+    static int yOf(int landing) { return (short) landing; }
+
+    TranspositionTable getTable() { return table; }
+    // the number of positions of the block the last search chose from
+    int getCandidates() { return candidates; }
+
+    /**
+     * Formats a representation of the given field for the log. Used for debugging.
+     * Each cell is represented by 1 if it is occupied, or 0 if the cell is empty.
+     *
+     * @param field The row masks of the field to be formatted.
+     * @return One line per row of the field, each ending with a line separator.
+     */
+    private String formatField(long[] field) {
+        StringBuilder result = new StringBuilder(System.lineSeparator());
+        for (int row = 0; row < field.length; row++) {
+            for (int col = 0; col < width; col++) {
+                result.append((field[row] >> col) & 1).append('\t');
+            }
+            result.append(System.lineSeparator()); // Move to the next line after each row
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,274 @@
+package tetris;
+
+import blocks.PlacementTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Finds the ways blocks can clear a field completely, leaving no cell behind.
+ * <p>
+ * Filling the bottom rows of a field up to the same height with blocks is an exact cover problem: every empty cell
+ * of the rows has to be covered by exactly one block, and every block has to be used once. The columns of the
+ * {@link ExactCover} problem are the empty cells and the blocks, and its rows are the distinct rotations of every block
+ * in every position of the rows where it only covers empty cells, taken from the {@link PlacementTable} of the block.
+ * The problem is solved for the first blocks whose cells fill whole rows, the fewest blocks first.
+ * <p>
+ * A cover only tells which cells every block fills. Whether the blocks can get there is checked by playing them in
+ * an order: every block has to be steerable to its position, as listed by {@link MoveGenerator}, on the field the
+ * blocks before it left behind, where the full rows were cleared and the rows above them moved down. A block cannot
+ * fill rows that lie on both sides of a row cleared before, so perfect clears that rely on that are not found.
+ * The rows of the field above the stack are empty, so the positions of every cover lie on the board.
+ * An instance is not thread-safe.
+ */
+class PerfectClear {
+    /**
+     * The highest stack the bot asks for a perfect clear of, in rows.
+     */
+    static final int ORACLE_ROWS = 4;
+    /**
+     * The widest board the bot asks for a perfect clear on. The covers of the rows of wider boards are too many to
+     * search through while a block falls: on a board of 10 columns a search takes up to a quarter of a second, on one
+     * of 20 columns it does not finish in minutes.
+     */
+    static final int ORACLE_WIDTH = 10;
+    private final int width;
+    private final int height;
+    private final long fullRow;
+    private final MoveGenerator generator;
+    private int candidates;
+
+    /**
+     * A block of a cover and the cells it fills.
+     *
+     * @param block    The index of the block in the blocks the cover was searched for.
+     * @param rotation The canonical rotation of the block.
+     * @param x        The column of the left edge of the block.
+     * @param y        The row of the top edge of the block, on the field the cover was searched for.
+     */
+    record Placement(int block, int rotation, int x, int y) {
+    }
+
+    /**
+     * A way to fill the bottom rows of a field.
+     *
+     * @param rows       The number of bottom rows filled.
+     * @param placements The blocks filling them, in the order of the blocks.
+     */
+    record Tiling(int rows, List<Placement> placements) {
+    }
+
+    /**
+     * Constructs a solver for boards of the given size.
+     *
+     * @param width  The width of the board.
+     * @param height The height of the board.
+     */
+    PerfectClear(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.fullRow = Board.fullRow(width);
+        this.generator = new MoveGenerator(width, height);
+    }
+
+    /**
+     * Finds how to play the first of the upcoming blocks so that they clear the field completely, if the stack is at
+     * most {@value #ORACLE_ROWS} rows high. The blocks have to be played in the given order, and only the first ones
+     * of them may clear the field, since every block that spawns before the field is cleared has to be placed.
+     *
+     * @param rows   The row masks of the field.
+     * @param blocks The current block, in the position it is in, followed by the upcoming ones in the order they spawn.
+     * @return The inputs steering the current block from where it is to its position in a perfect clear, or null if
+     * the blocks cannot clear the field within {@value #ORACLE_ROWS} rows or the board is wider than
+     * {@value #ORACLE_WIDTH} columns.
+     */
+    GameInput[] findPath(long[] rows, TetrisBlock[] blocks) {
+        candidates = 0;
+        int stack = stackHeight(rows);
+        if (stack > ORACLE_ROWS || width > ORACLE_WIDTH) return null;
+        int filled = filledCells(rows);
+        int cells = 0;
+        for (int used = 1; used <= blocks.length; used++) {
+            cells += cellsOf(blocks[used - 1]);
+            if ((filled + cells) % width != 0) continue;
+            int target = (filled + cells) / width;
+            if (target > ORACLE_ROWS) break;
+            if (target < stack) continue;
+            for (Tiling tiling : (Iterable<Tiling>) tilings(rows, blocks, used, target)::iterator) {
+                candidates++;
+                GameInput[] path = playInOrder(rows, blocks, tiling);
+                if (path != null) return path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of covers {@link #findPath(long[], TetrisBlock[])} played through in its last call.
+     *
+     * @return The number of covers.
+     */
+    int getCandidates() { return candidates; }
+
+    /**
+     * Lists the covers of the bottom rows of a field, lazily.
+     *
+     * @param used   The number of blocks, from the first, that fill the rows together.
+     * @param target The number of bottom rows to fill.
+     */
+    private Stream<Tiling> tilings(long[] rows, TetrisBlock[] blocks, int used, int target) {
+        int top = height - target;
+        // the column of every empty cell of the rows
+        int[] cellColumns = new int[target * width];
+        int empty = 0;
+        for (int row = top; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                cellColumns[(row - top) * width + col] = (rows[row] & 1L << col) == 0 ? empty++ : -1;
+            }
+        }
+        ExactCover cover = new ExactCover(empty + used, 0);
+        List<Placement> placements = new ArrayList<>();
+        for (int b = 0; b < used; b++) {
+            PlacementTable table = blocks[b].getTable();
+            for (int rotation = 0; rotation < PlacementTable.ROTATIONS; rotation++) {
+                if (table.getCanonicalRotation(rotation) != rotation) continue;
+                int[] masks = table.getMasks(rotation);
+                for (int y = top; y + masks.length <= height; y++) {
+                    for (int x = 0; x + table.getWidth(rotation) <= width; x++) {
+                        if (Board.collides(rows, width, masks, x, y)) continue;
+                        int[] columns = new int[cellsOf(blocks[b]) + 1];
+                        int i = 0;
+                        for (int r = 0; r < masks.length; r++) {
+                            for (int mask = masks[r]; mask != 0; mask &= mask - 1) {
+                                columns[i++] = cellColumns[(y + r - top) * width + x
+                                        + Integer.numberOfTrailingZeros(mask)];
+                            }
+                        }
+                        columns[i] = empty + b;
+                        cover.addRow(columns);
+                        placements.add(new Placement(b, rotation, x, y));
+                    }
+                }
+            }
+        }
+        return cover.solutions().map(solution -> {
+            List<Placement> tiling = new ArrayList<>(solution.length);
+            for (int index : solution) {
+                tiling.add(placements.get(index));
+            }
+            return new Tiling(target, List.copyOf(tiling));
+        });
+    }
+
+    /**
+     * Plays the blocks of a cover in the order of the blocks.
+     *
+     * @return The path of the first block, or null if a block cannot be steered to its position.
+     */
+    private GameInput[] playInOrder(long[] rows, TetrisBlock[] blocks, Tiling tiling) {
+        long[] field = rows.clone();
+        FieldStats stats = new FieldStats(width, height);
+        stats.compute(field);
+        int[] rowAt = identityRows();
+        GameInput[] first = null;
+        for (Placement placement : tiling.placements()) {
+            // the current block moves on from where it is, the others from where they spawn
+            int lock = findLock(field, stats, rowAt, blocks[placement.block()], placement, first == null);
+            if (lock < 0) return null;
+            if (first == null) first = generator.getPath(lock);
+            play(field, stats, rowAt, blocks[placement.block()], placement);
+        }
+        return first;
+    }
+
+    /**
+     * Finds the position of a block of a cover among the lock positions of the block on the field.
+     *
+     * @param rowAt   The row of the field every row of the cover was moved to by the cleared rows, -1 if it was cleared.
+     * @param current Specifies whether the block moves from its current position instead of where it spawns.
+     * @return The index of the lock position in the generator, or -1 if the block cannot get there.
+     */
+    private int findLock(long[] field, FieldStats stats, int[] rowAt, TetrisBlock block, Placement placement,
+                         boolean current) {
+        int[] masks = block.getMasks(placement.rotation());
+        int y = rowAt[placement.y()];
+        if (y < 0) return -1;
+        for (int r = 1; r < masks.length; r++) {
+            // a row between those of the block was cleared, so its cells are no longer in its shape
+            if (rowAt[placement.y() + r] != y + r) return -1;
+        }
+        // packed like the lock positions of the generator
+        int lock = placement.rotation() << 24 | placement.x() << 16 | y;
+        int count = current
+                ? generator.generate(field, stats.getHeights(), block, block.getX(), block.getY(), block.getCurrentRotation())
+                : generator.generate(field, stats.getHeights(), block, block.getSpawnX(width), TetrisBlock.SPAWN_Y,
+                TetrisBlock.SPAWN_ROTATION);
+        for (int i = 0; i < count; i++) {
+            if (generator.getLock(i) == lock) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Places a block of a cover, clears the full rows and moves the rows of the cover along.
+     */
+    private void play(long[] field, FieldStats stats, int[] rowAt, TetrisBlock block, Placement placement) {
+        stats.place(field, block.getMasks(placement.rotation()), placement.x(), rowAt[placement.y()]);
+        int[] cleared = new int[height];
+        int count = 0;
+        for (int row = height - 1; row >= 0; row--) {
+            if (field[row] == fullRow) cleared[count++] = row;
+        }
+        stats.clearFullRows(field);
+        for (int r = 0; r < height; r++) {
+            int row = rowAt[r];
+            if (row < 0) continue;
+            int below = 0;
+            for (int i = 0; i < count; i++) {
+                if (cleared[i] == row) {
+                    below = -1;
+                    break;
+                }
+                if (cleared[i] > row) below++;
+            }
+            rowAt[r] = below < 0 ? -1 : row + below;
+        }
+    }
+
+    private int[] identityRows() {
+        int[] rowAt = new int[height];
+        Arrays.setAll(rowAt, r -> r);
+        return rowAt;
+    }
+
+    private int stackHeight(long[] rows) {
+        for (int row = 0; row < height; row++) {
+            if (rows[row] != 0) return height - row;
+        }
+        return 0;
+    }
+
+    private int filledCells(long[] rows) {
+        int cells = 0;
+        for (int row = 0; row < height; row++) {
+            cells += Long.bitCount(rows[row]);
+        }
+        return cells;
+    }
+
+    /**
+     * Counts the cells of a block.
+     *
+     * @param block The block.
+     * @return The number of cells of its shape.
+     */
+    static int cellsOf(TetrisBlock block) {
+        int cells = 0;
+        for (int mask : block.getMasks(0)) {
+            cells += Integer.bitCount(mask);
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,92 @@
+package tetris;
+
+import blocks.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Decides the order in which the blocks of a game spawn.
+ * A randomizer takes all its random decisions from the {@link Random} it was created with,
+ * so randomizers of the same kind created with equally seeded generators produce the same sequence.
+ */
+public interface Randomizer {
+    /**
+     * The system property that selects the kind of randomizer of new games, by the name of the kind,
+     * for example {@code -Dtetris.randomizer=history}.
+     */
+    String RANDOMIZER_PROPERTY = "tetris.randomizer";
+    /** Every block once per bag, in a shuffled order. */
+    int BAG = 0;
+    /** Every block twice per bag, in a shuffled order. */
+    int DOUBLE_BAG = 1;
+    /** Random blocks that avoid repeating the most recent ones. */
+    int HISTORY = 2;
+    /** The optimal sequence, which is the same in every game. */
+    int FIXED = 3;
+    String[] NAMES = {"bag", "doublebag", "history", "fixed"};
+    /**
+     * Creates a block of every shape, always in the same order.
+     */
+    List<Supplier<TetrisBlock>> SHAPES = List.of(XShape::new, IShape::new, ZShape::new, TShape::new, UShape::new,
+            VShape::new, WShape::new, YShape::new, LShape::new, PShape::new, NShape::new, FShape::new);
+
+    /**
+     * Appends the next blocks of the sequence to the bag.
+     *
+     * @param bag The blocks that spawn next, in order. At least one block is appended.
+     */
+    void fill(List<TetrisBlock> bag);
+
+    /**
+     * Returns the kind of this randomizer, which together with the seed of its generator reproduces its sequence.
+     *
+     * @return One of {@link #BAG}, {@link #DOUBLE_BAG}, {@link #HISTORY} and {@link #FIXED}.
+     */
+    int getKind();
+
+    /**
+     * Creates a randomizer.
+     *
+     * @param kind   One of {@link #BAG}, {@link #DOUBLE_BAG}, {@link #HISTORY} and {@link #FIXED}.
+     * @param random The source of the random decisions of the randomizer.
+     * @return The randomizer.
+     * @throws IllegalArgumentException If the kind is unknown.
+     */
+    static Randomizer create(int kind, Random random) {
+        return switch (kind) {
+            case BAG -> new BagRandomizer(random, 1);
+            case DOUBLE_BAG -> new BagRandomizer(random, 2);
+            case HISTORY -> new HistoryRandomizer(random);
+            case FIXED -> new FixedRandomizer();
+            default -> throw new IllegalArgumentException("Unknown randomizer: " + kind);
+        };
+    }
+
+    /**
+     * Finds the kind of randomizer selected with {@link #RANDOMIZER_PROPERTY}.
+     *
+     * @return The selected kind, {@link #BAG} if none or an unknown one is selected.
+     */
+    static int selectedKind() {
+        String name = System.getProperty(RANDOMIZER_PROPERTY);
+        for (int kind = 0; kind < NAMES.length; kind++) {
+            if (NAMES[kind].equalsIgnoreCase(name)) return kind;
+        }
+        return BAG;
+    }
+
+    /**
+     * Creates one block of every shape.
+     *
+     * @return The blocks, in the order of {@link #SHAPES}.
+     */
+    static TetrisBlock[] newBlockSet() {
+        TetrisBlock[] blocks = new TetrisBlock[SHAPES.size()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = SHAPES.get(i).get();
+        }
+        return blocks;
+    }
+}
@@ -0,0 +1,129 @@
+package tetris;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Plays replays recorded by {@link ReplayRecorder} without a user interface and as fast as possible,
+ * and checks that they still end with the recorded score in the recorded tick.
+ * A replay that does not is a change of the rules, which makes replays useful as regression tests,
+ * while the time it takes to play them compares the speed of two versions of the engine.
+ * <p>
+ * Usage: {@code java tetris.ReplayPlayer <replay>...}
+ */
+public class ReplayPlayer {
+
+    /**
+     * The outcome of playing a replay.
+     *
+     * @param score         The score the replayed game ended with.
+     * @param recordedScore The score the recorded game ended with.
+     * @param ticks         The number of ticks the replayed game ran, not counting skipped ones.
+     * @param recordedTicks The number of ticks the recorded game ran, not counting skipped ones.
+     * @param nanos         The time it took to play the replay.
+     */
+    public record Result(int score, int recordedScore, long ticks, long recordedTicks, long nanos) {
+        public boolean matches() { return score == recordedScore && ticks == recordedTicks; }
+    }
+
+    /**
+     * Plays a replay.
+     *
+     * @param replay The replay, as written by {@link ReplayRecorder}.
+     * @return The outcome.
+     * @throws IOException If the replay is malformed.
+     */
+    public static Result play(byte[] replay) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(replay));
+        if (in.readInt() != ReplayRecorder.MAGIC) throw new IOException("Not a replay");
+        int version = in.readUnsignedByte();
+        if (version != ReplayRecorder.VERSION) throw new IOException("Unsupported replay version " + version);
+        int kind = in.readUnsignedByte();
+        long seed = in.readLong();
+        long start = System.nanoTime();
+        Random random = new Random(seed);
+        GameEngine engine;
+        try {
+            engine = new GameEngine(Randomizer.create(kind, random), random);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+        GameLoop loop = new GameLoop(engine);
+        loop.start();
+        // the tick the next call of the loop runs and the ticks skipped before it
+        long tick = 0;
+        long skipped = 0;
+        long eventTick = 0;
+        int recordedScore;
+        while (true) {
+            eventTick += readVarint(in);
+            while (tick < eventTick) {
+                if (!loop.tick(skipped)) {
+                    return new Result(engine.getScore(), -1, tick + 1, -1, System.nanoTime() - start);
+                }
+                tick++;
+                skipped = 0;
+            }
+            int code = in.readUnsignedByte();
+            if (code == ReplayRecorder.END) {
+                recordedScore = (int) readVarint(in);
+                break;
+            } else if (code == ReplayRecorder.SKIP) {
+                skipped = readVarint(in);
+            } else if (code < GameInput.values().length) {
+                engine.submit(GameInput.values()[code]);
+            } else {
+                throw new IOException("Unknown event " + code);
+            }
+        }
+        // the game was lost in the tick of the end event
+        long ticks = tick + 1;
+        while (loop.tick(skipped)) {
+            skipped = 0;
+            ticks++;
+            // a game that goes on forever has drifted off the recording anyway
+            if (ticks > eventTick + GameLoop.TICKS_PER_SECOND * 3600L) break;
+        }
+        return new Result(engine.getScore(), recordedScore, ticks, eventTick + 1, System.nanoTime() - start);
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Plays the given replays and reports whether each of them matched its recording and how fast it was played.
+     *
+     * @param args The replay files.
+     */
+    public static void main(String[] args) throws IOException {
+        int mismatches = 0;
+        for (String arg : args) {
+            Result result;
+            try {
+                result = play(Files.readAllBytes(Path.of(arg)));
+            } catch (EOFException e) {
+                System.out.println(arg + ": truncated");
+                mismatches++;
+                continue;
+            }
+            double millis = result.nanos() / 1e6;
+            System.out.printf("%s: %s, score %d (recorded %d), %d ticks (recorded %d), %.1f ms, %.0f ticks/s%n", arg,
+                    result.matches() ? "ok" : "MISMATCH", result.score(), result.recordedScore(), result.ticks(),
+                    result.recordedTicks(), millis, result.ticks() / (millis / 1000));
+            if (!result.matches()) mismatches++;
+        }
+        if (mismatches > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,110 @@
+package tetris;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records a game of the player in a compact binary replay that {@link ReplayPlayer} plays back.
+ * <p>
+ * A replay starts with a header: the magic number {@value #MAGIC} ("TRPL"), the version of the format,
+ * the kind of {@link Randomizer} and the seed of its generator. The header is followed by events.
+ * Every event is the number of ticks since the previous event as an unsigned LEB128 varint,
+ * followed by one byte:
+ * the ordinal of a {@link GameInput} applied in that tick,
+ * {@link #SKIP} followed by a varint of the ticks the loop skipped before that tick, or
+ * {@link #END} followed by a varint of the final score, for the tick the game was lost in.
+ * An input costs two bytes unless it is more than two seconds after the previous event.
+ */
+public class ReplayRecorder {
+    static final int MAGIC = 0x5452504C;
+    static final int VERSION = 1;
+    static final int SKIP = 0x40;
+    static final int END = 0x7F;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // the tick that is running, -1 before the first one
+    private long tick = -1;
+    private long lastEventTick;
+
+    /**
+     * Starts a replay of a game.
+     *
+     * @param randomizer The kind of randomizer dealing the blocks of the game.
+     * @param seed       The seed of the generator of the randomizer.
+     */
+    public ReplayRecorder(int randomizer, long seed) {
+        writeInt(MAGIC);
+        out.write(VERSION);
+        out.write(randomizer);
+        writeInt((int) (seed >>> 32));
+        writeInt((int) seed);
+    }
+
+    /**
+     * Records the start of a tick.
+     *
+     * @param skipped The number of ticks skipped before this one.
+     */
+    void tick(long skipped) {
+        tick++;
+        if (skipped > 0) {
+            event(SKIP);
+            writeVarint(skipped);
+        }
+    }
+
+    /**
+     * Records an input applied in the current tick.
+     *
+     * @param input The input.
+     */
+    void input(GameInput input) {
+        event(input.ordinal());
+    }
+
+    /**
+     * Records the end of the game in the current tick.
+     *
+     * @param score The final score.
+     */
+    public void finish(int score) {
+        event(END);
+        writeVarint(score);
+    }
+
+    private void event(int code) {
+        writeVarint(tick - lastEventTick);
+        lastEventTick = tick;
+        out.write(code);
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private void writeInt(int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    public byte[] toByteArray() { return out.toByteArray(); }
+
+    /**
+     * Writes the replay to a file, creating its directory if necessary.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Files.write(file, out.toByteArray());
+    }
+}
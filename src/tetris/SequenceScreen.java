@@ -15,7 +15,7 @@ public class SequenceScreen extends JFrame {
      * @param darkMode A boolean value to set the game in dark mode if true.
      */
     public SequenceScreen(boolean darkMode) {
-        GameArea ga = new GameArea(darkMode, true);
+        GameArea ga = new GameArea(new GameEngine(true), darkMode);
         this.add(ga);
         this.pack();
         this.setLocationRelativeTo(null);
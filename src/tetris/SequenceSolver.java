@@ -0,0 +1,329 @@
+package tetris;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Finds the order of the blocks of a bag and the positions to lock them in that clear the most lines.
+ * <p>
+ * The solver searches depth first which of the remaining blocks spawns next and in which of its lock positions it
+ * ends, as listed by {@link MoveGenerator}, so every found position can be reached by the inputs of a player.
+ * Positions that lock a block above the board lose the game and are never chosen. The children of a node are searched
+ * in the order the default {@link WeightProfile} rates them, and a branch is cut when even clearing a line with every
+ * cell of the field and of the remaining blocks could not beat the best sequence so far. The search ends as soon as a
+ * sequence clears that many lines from the empty field, since no sequence can clear more.
+ * <p>
+ * That bound cuts nothing while a sequence clearing every cell is still possible, so the solver first searches like an
+ * exact cover: it only locks blocks that fill the leftmost empty cell of the bottom row, which leaves a few children per
+ * node. If that finds no sequence clearing every cell, the whole tree is searched, cut by the best sequence of the
+ * first pass.
+ * <p>
+ * Different orders of the same blocks often lead to the same field, and so do rotations that look the same, which the
+ * move generator lists once. A field reached with the same blocks remaining and at most as many lines as before is
+ * dominated by the earlier visit and not searched again. The first {@value #SPLIT_DEPTH} levels of the tree are split
+ * into tasks of a work-stealing {@link ForkJoinPool}, which share the best sequence and the visited fields; below them
+ * every task searches on its own arrays. When several sequences clear the most lines, which of them is found may depend
+ * on how the tasks were scheduled. On the default board the first pass finds a sequence clearing all twelve lines
+ * after a few thousand nodes; boards where no sequence clears every cell take the whole second pass.
+ */
+class SequenceSolver {
+    private static final int SPLIT_DEPTH = 2;
+    // the most fields remembered, so searches on large boards do not run out of memory
+    private static final int MAX_VISITED = 1 << 21;
+    private static final long REMAINING_SEED = 0xC2B2AE3D27D4EB4FL;
+    private final int width;
+    private final int height;
+    private final TetrisBlock[] blocks;
+    private final int[] cells;
+    private final int maxLines;
+    private final AtomicReference<Solution> best = new AtomicReference<>();
+    private final ConcurrentHashMap<Long, Integer> visited = new ConcurrentHashMap<>();
+    private final AtomicInteger nodes = new AtomicInteger();
+    // only lock blocks that fill the leftmost empty cell of the bottom row
+    private boolean bottomOnly;
+
+    /**
+     * A block of the sequence and where it locks.
+     *
+     * @param shape The index of the shape in {@link Randomizer#SHAPES}.
+     * @param lock  The canonical rotation, column and row of the lock position, packed like {@link MoveSearch#land}.
+     * @param path  The inputs steering the spawned block to the lock position, see {@link MoveGenerator#getPath(int)}.
+     */
+    record Step(int shape, int lock, GameInput[] path) {
+    }
+
+    /**
+     * A sequence of blocks and the lines it clears.
+     *
+     * @param lines The number of lines cleared.
+     * @param steps The blocks in the order they spawn. The paths are only known in results of {@link #solve()}.
+     * @param nodes The number of nodes searched to find it.
+     */
+    record Solution(int lines, List<Step> steps, int nodes) {
+        /**
+         * Returns the order the shapes spawn in.
+         *
+         * @return The indices of the shapes in {@link Randomizer#SHAPES}.
+         */
+        int[] order() {
+            return steps.stream().mapToInt(Step::shape).toArray();
+        }
+    }
+
+    /**
+     * Constructs a solver for one block of every shape on a board of the given size.
+     *
+     * @param width  The width of the board.
+     * @param height The height of the board.
+     */
+    SequenceSolver(int width, int height) {
+        this.width = width;
+        this.height = height;
+        blocks = Randomizer.newBlockSet();
+        cells = new int[blocks.length];
+        int total = 0;
+        for (int shape = 0; shape < blocks.length; shape++) {
+            for (int mask : blocks[shape].getMasks(0)) {
+                cells[shape] += Integer.bitCount(mask);
+            }
+            total += cells[shape];
+        }
+        maxLines = total / width;
+    }
+
+    /**
+     * Searches the best sequence with the common fork-join pool.
+     *
+     * @return The best sequence, with the paths of its blocks.
+     */
+    Solution solve() {
+        return solve(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Searches the best sequence.
+     *
+     * @param pool The pool running the tasks of the search.
+     * @return The best sequence, with the paths of its blocks.
+     */
+    Solution solve(ForkJoinPool pool) {
+        best.set(new Solution(0, List.of(), 0));
+        nodes.set(0);
+        for (boolean bottomOnly : new boolean[]{true, false}) {
+            if (best.get().lines() >= maxLines) break;
+            this.bottomOnly = bottomOnly;
+            visited.clear();
+            pool.invoke(new Split(0, (1 << blocks.length) - 1, 0, new long[height], new FieldStats(width, height),
+                    new int[0], new int[0]));
+        }
+        return withPaths(best.get());
+    }
+
+    /**
+     * Replays a sequence from the empty field to find the inputs of every block.
+     *
+     * @throws IllegalStateException if a block cannot reach the position the search locked it in.
+     */
+    private Solution withPaths(Solution solution) {
+        MoveGenerator generator = new MoveGenerator(width, height);
+        long[] rows = new long[height];
+        FieldStats stats = new FieldStats(width, height);
+        List<Step> steps = new ArrayList<>();
+        for (Step step : solution.steps()) {
+            TetrisBlock block = blocks[step.shape()];
+            int count = generator.generate(rows, stats.getHeights(), block, block.getSpawnX(width),
+                    TetrisBlock.SPAWN_Y, TetrisBlock.SPAWN_ROTATION);
+            GameInput[] path = null;
+            for (int i = 0; i < count && path == null; i++) {
+                if (generator.getLock(i) == step.lock()) path = generator.getPath(i);
+            }
+            if (path == null) {
+                throw new IllegalStateException("Block " + steps.size() + " of the sequence cannot reach its position");
+            }
+            steps.add(new Step(step.shape(), step.lock(), path));
+            place(rows, stats, step.shape(), step.lock());
+        }
+        return new Solution(solution.lines(), List.copyOf(steps), nodes.get());
+    }
+
+    /**
+     * Locks a block on a field and clears the full rows.
+     *
+     * @return The number of cleared rows.
+     */
+    private int place(long[] rows, FieldStats stats, int shape, int lock) {
+        stats.place(rows, blocks[shape].getMasks(MoveSearch.rotationOf(lock)), MoveSearch.xOf(lock),
+                MoveSearch.yOf(lock));
+        return stats.clearFullRows(rows);
+    }
+
+    /**
+     * Lists the children of a node, the most promising first.
+     *
+     * @return The children, each packed as the index of the shape in the high and the lock position in the low half.
+     */
+    private long[] children(MoveGenerator generator, long[] rows, FieldStats stats, int remaining) {
+        long[] children = new long[0];
+        long[] order = new long[0];
+        int size = 0;
+        // the leftmost empty cell of the bottom row
+        int gap = Long.numberOfTrailingZeros(~rows[height - 1]);
+        for (int shape = 0; shape < blocks.length; shape++) {
+            if ((remaining & 1 << shape) == 0) continue;
+            TetrisBlock block = blocks[shape];
+            int count = generator.generate(rows, stats.getHeights(), block, block.getSpawnX(width),
+                    TetrisBlock.SPAWN_Y, TetrisBlock.SPAWN_ROTATION);
+            if (size + count > children.length) {
+                children = Arrays.copyOf(children, size + count);
+                order = Arrays.copyOf(order, size + count);
+            }
+            for (int i = 0; i < count; i++) {
+                int lock = generator.getLock(i);
+                int[] masks = block.getMasks(MoveSearch.rotationOf(lock));
+                int x = MoveSearch.xOf(lock);
+                int y = MoveSearch.yOf(lock);
+                // a block locking above the board ends the game
+                if (y < 0) continue;
+                if (bottomOnly && (y + masks.length != height || ((long) masks[masks.length - 1] << x & 1L << gap) == 0)) {
+                    continue;
+                }
+                int score = stats.ratePlacement(rows, masks, x, y, WeightProfile.DEFAULT);
+                children[size] = (long) shape << 32 | lock;
+                // higher scores sort first, equal ones in the order they were generated
+                order[size] = (long) -score << 32 | size;
+                size++;
+            }
+        }
+        Arrays.sort(order, 0, size);
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = children[(int) order[i]];
+        }
+        return sorted;
+    }
+
+    private static int shapeOf(long child) { return (int) (child >>> 32); }
+    private static int lockOf(long child) { return (int) child; }
+
+    /**
+     * Decides if a node has to be searched and records the visit if so.
+     *
+     * @return false if the node cannot lead to a better sequence or a dominating visit was searched already.
+     */
+    private boolean enter(int depth, int remaining, int lines, long[] rows, FieldStats stats, int[] shapes, int[] locks) {
+        nodes.incrementAndGet();
+        Solution solution = best.get();
+        while (lines > solution.lines()) {
+            List<Step> steps = new ArrayList<>();
+            for (int i = 0; i < depth; i++) {
+                steps.add(new Step(shapes[i], locks[i], null));
+            }
+            if (best.compareAndSet(solution, new Solution(lines, steps, 0))) {
+                solution = best.get();
+                break;
+            }
+            solution = best.get();
+        }
+        if (remaining == 0 || solution.lines() >= maxLines) return false;
+        int remainingCells = 0;
+        for (int shape = 0; shape < blocks.length; shape++) {
+            if ((remaining & 1 << shape) != 0) remainingCells += cells[shape];
+        }
+        if (lines + (stats.getCells() + remainingCells) / width <= solution.lines()) return false;
+        long key = TranspositionTable.hash(rows) ^ remaining * REMAINING_SEED;
+        Integer before = visited.get(key);
+        if (before != null && before >= lines) return false;
+        if (before != null || visited.size() < MAX_VISITED) visited.merge(key, lines, Math::max);
+        return true;
+    }
+
+    /**
+     * Searches one of the top levels of the tree by forking a task for every child.
+     */
+    private class Split extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int depth;
+        private final int remaining;
+        private final int lines;
+        private final long[] rows;
+        private final FieldStats stats;
+        private final int[] shapes;
+        private final int[] locks;
+
+        Split(int depth, int remaining, int lines, long[] rows, FieldStats stats, int[] shapes, int[] locks) {
+            this.depth = depth;
+            this.remaining = remaining;
+            this.lines = lines;
+            this.rows = rows;
+            this.stats = stats;
+            this.shapes = shapes;
+            this.locks = locks;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth == SPLIT_DEPTH) {
+                new Search(rows, stats, shapes, locks).search(depth, remaining, lines);
+                return;
+            }
+            if (!enter(depth, remaining, lines, rows, stats, shapes, locks)) return;
+            List<Split> tasks = new ArrayList<>();
+            for (long child : children(new MoveGenerator(width, height), rows, stats, remaining)) {
+                long[] childRows = rows.clone();
+                FieldStats childStats = new FieldStats(width, height);
+                childStats.copyFrom(stats);
+                int cleared = place(childRows, childStats, shapeOf(child), lockOf(child));
+                int[] childShapes = Arrays.copyOf(shapes, depth + 1);
+                int[] childLocks = Arrays.copyOf(locks, depth + 1);
+                childShapes[depth] = shapeOf(child);
+                childLocks[depth] = lockOf(child);
+                tasks.add(new Split(depth + 1, remaining & ~(1 << shapeOf(child)), lines + cleared, childRows,
+                        childStats, childShapes, childLocks));
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    /**
+     * Searches the subtree below the split levels on its own arrays, one field per level.
+     */
+    private class Search {
+        private final MoveGenerator generator = new MoveGenerator(width, height);
+        private final long[][] levelRows = new long[blocks.length + 1][height];
+        private final FieldStats[] levelStats = new FieldStats[blocks.length + 1];
+        private final int[] shapes = new int[blocks.length];
+        private final int[] locks = new int[blocks.length];
+
+        Search(long[] rows, FieldStats stats, int[] shapes, int[] locks) {
+            for (int level = 0; level < levelStats.length; level++) {
+                levelStats[level] = new FieldStats(width, height);
+            }
+            System.arraycopy(shapes, 0, this.shapes, 0, shapes.length);
+            System.arraycopy(locks, 0, this.locks, 0, locks.length);
+            System.arraycopy(rows, 0, levelRows[shapes.length], 0, height);
+            levelStats[shapes.length].copyFrom(stats);
+        }
+
+        void search(int depth, int remaining, int lines) {
+            long[] rows = levelRows[depth];
+            FieldStats stats = levelStats[depth];
+            if (!enter(depth, remaining, lines, rows, stats, shapes, locks)) return;
+            long[] childRows = levelRows[depth + 1];
+            FieldStats childStats = levelStats[depth + 1];
+            for (long child : children(generator, rows, stats, remaining)) {
+                System.arraycopy(rows, 0, childRows, 0, height);
+                childStats.copyFrom(stats);
+                int cleared = place(childRows, childStats, shapeOf(child), lockOf(child));
+                shapes[depth] = shapeOf(child);
+                locks[depth] = lockOf(child);
+                search(depth + 1, remaining & ~(1 << shapeOf(child)), lines + cleared);
+            }
+        }
+    }
+}
@@ -1,296 +1,61 @@
 package tetris;
 
 /**
- * A thread class responsible for executing a sequence of predetermined moves in the Tetris game.
- * This class simulates gameplay by spawning blocks and performing specific moves in a set order.
+ * A thread class responsible for executing the best sequence of moves in the Tetris game.
+ * The thread searches the order of the blocks and the positions to lock them in that clear the most lines with
+ * {@link SequenceSolver}, then spawns the blocks in that order and steers every block to its position.
+ * A sequence that clears the whole board is played over and over again. If no block fits on the board, so there is
+ * no sequence, the bot places the blocks of the sequence found by hand instead.
  */
 public class SequenceThread extends Thread {
-    private final GameArea ga;
+    private final GameEngine engine;
 
     /**
      * Constructs a SequenceThread with a reference to the game area.
      *
-     * @param ga The game area where the sequence of moves will be executed.
+     * @param ga The game area whose engine the sequence of moves will be executed on.
      */
-    public SequenceThread(GameArea ga) { this.ga = ga; }
+    public SequenceThread(GameArea ga) { this.engine = ga.getEngine(); }
 
     /**
      * The main execution method for the thread.
-     * Runs a loop that executes a series of predefined moves in the game area.
+     * Searches the best sequence, then plays it until the thread is interrupted.
      */
     @Override
     public void run() {
-        try {
-            while (!Thread.currentThread().isInterrupted()) {
-                firstMove();
-                secondMove();
-                thirdMove();
-                fourthMove();
-                fifthMove();
-                sixthMove();
-                seventhMove();
-                eighthMove();
-                ninthMove();
-                tenthMove();
-                eleventhMove();
-                twelfthMove();
+        Board board = engine.getBoard();
+        long start = System.nanoTime();
+        SequenceSolver.Solution solution = new SequenceSolver(board.getWidth(), board.getHeight()).solve();
+        if (Log.isInfoEnabled()) {
+            Log.info(String.format("Found a sequence clearing %d lines in %.0f ms after %d nodes", solution.lines(),
+                    (System.nanoTime() - start) / 1e6, solution.nodes()));
+        }
+        if (solution.steps().isEmpty()) {
+            Log.warn("Found no sequence to play, the bot places the blocks of the sequence found by hand instead");
+            engine.setRandomizer(new FixedRandomizer());
+            try {
+                while (!Thread.currentThread().isInterrupted() && engine.playBotBlock(5)) {
+                    // the bot keeps placing blocks until the game is lost
+                }
+            } catch (InterruptedException e) {
+                // The thread was interrupted, so stop the thread
             }
+            return;
+        }
+        engine.setRandomizer(new FixedRandomizer(solution.order()));
+        try {
+            do {
+                for (SequenceSolver.Step step : solution.steps()) {
+                    if (Thread.currentThread().isInterrupted()) return;
+                    engine.spawnBlock();
+                    engine.carryPath(step.path(), true);
+                    engine.moveBlockToBackground();
+                    engine.clearLine();
+                }
+                // the paths start from an empty board, so only a sequence that clears it can be played again
+            } while (board.getStats().getCells() == 0);
         } catch (InterruptedException e) {
             // The thread was interrupted, so stop the thread
         }
     }
-
-    private void moveDown() throws InterruptedException {
-        if (ga.moveBlockDown()) {
-            Thread.sleep(50);
-        }
-    }
-
-    private void firstMove() throws InterruptedException {
-        ga.spawnBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockRight();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockToBackground();
-        ga.clearLine();
-    }
-    private void secondMove() throws InterruptedException {
-        ga.spawnBlock();
-        moveDown();
-        ga.moveBlockLeft();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockToBackground();
-        ga.clearLine();
-    }
-    private void thirdMove() throws InterruptedException {
-        ga.spawnBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        ga.moveBlockRight();
-        moveDown();
-        ga.moveBlockRight();
-        moveDown();
-        ga.moveBlockRight();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockToBackground();
-        ga.clearLine();
-    }
-    private void fourthMove() throws InterruptedException {
-        ga.spawnBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockToBackground();
-        ga.clearLine();
-    }
-    private void fifthMove() throws InterruptedException {
-        ga.spawnBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        ga.moveBlockLeft();
-        moveDown();
-        ga.moveBlockLeft();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockToBackground();
-        ga.clearLine();
-    }
-    private void sixthMove() throws InterruptedException {
-        ga.spawnBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockRight();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockToBackground();
-        ga.clearLine();
-    }
-    private void seventhMove() throws InterruptedException {
-        ga.spawnBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockLeft();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockToBackground();
-        ga.clearLine();
-    }
-    private void eighthMove() throws InterruptedException {
-        ga.spawnBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        ga.moveBlockRight();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockToBackground();
-        ga.clearLine();
-    }
-    private void ninthMove() throws InterruptedException {
-        ga.spawnBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockToBackground();
-        ga.clearLine();
-    }
-    private void tenthMove() throws InterruptedException {
-        ga.spawnBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        ga.moveBlockRight();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockToBackground();
-        ga.clearLine();
-    }
-    private void eleventhMove() throws InterruptedException {
-        ga.spawnBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockToBackground();
-        ga.clearLine();
-    }
-    private void twelfthMove() throws InterruptedException {
-        ga.spawnBlock();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        ga.rotateBlock();
-        moveDown();
-        moveDown();
-        ga.moveBlockRight();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        moveDown();
-        ga.moveBlockToBackground();
-        ga.clearLine();
-    }
 }
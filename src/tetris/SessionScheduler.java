@@ -0,0 +1,125 @@
+package tetris;
+
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ticks many {@link GameSession}s on a few threads.
+ * <p>
+ * The sessions are spread over shards, one thread each. A shard is an event loop running at the fixed timestep of
+ * {@link GameLoop}: at the start of every tick it takes in newly added sessions, ticks every session it owns once and
+ * drops the closed ones, then parks until the next tick. A session stays on its shard for its whole life, so it is
+ * only ever changed by one thread and needs no locking. Like {@link GameThread}, a shard that falls behind skips
+ * the ticks that are over already and hands their time to the gravity of its sessions.
+ * <p>
+ * The bots of the sessions search and place their blocks in a pool of their own, so a long search does not hold up
+ * the ticks of the other sessions of its shard. A session that fails while it is ticked is closed and logged, and its
+ * shard goes on with the others.
+ */
+class SessionScheduler {
+    private final Shard[] shards;
+    // places the blocks of the bots
+    private final ForkJoinPool bots;
+    private final AtomicLong missedTicks = new AtomicLong();
+
+    /**
+     * Starts the threads of a scheduler.
+     *
+     * @param threads The number of shards, and of the threads placing the blocks of the bots.
+     */
+    SessionScheduler(int threads) {
+        bots = new ForkJoinPool(threads);
+        shards = new Shard[threads];
+        for (int i = 0; i < threads; i++) {
+            shards[i] = new Shard("Session shard " + i);
+            shards[i].start();
+        }
+    }
+
+    /**
+     * Hands a session to the shard with the fewest sessions. The session is ticked from the next tick of the shard on.
+     *
+     * @param session The session.
+     */
+    void add(GameSession session) {
+        Shard target = shards[0];
+        for (Shard shard : shards) {
+            if (shard.load.get() < target.load.get()) target = shard;
+        }
+        target.load.incrementAndGet();
+        target.added.add(session);
+    }
+
+    /**
+     * Stops the threads of the scheduler. Sessions that are still open are no longer ticked.
+     */
+    void shutdown() {
+        for (Shard shard : shards) {
+            shard.interrupt();
+        }
+        bots.shutdownNow();
+    }
+
+    long getMissedTicks() { return missedTicks.get(); }
+
+    /**
+     * A thread ticking its share of the sessions.
+     */
+    private class Shard extends Thread {
+        private final Queue<GameSession> added = new ConcurrentLinkedQueue<>();
+        // the number of sessions owned or about to be, for balancing
+        private final AtomicInteger load = new AtomicInteger();
+        private final ArrayList<GameSession> sessions = new ArrayList<>();
+
+        Shard(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long nextTick = System.nanoTime();
+            long skipped = 0;
+            while (!isInterrupted()) {
+                GameSession session;
+                while ((session = added.poll()) != null) {
+                    sessions.add(session);
+                }
+                int kept = 0;
+                for (GameSession current : sessions) {
+                    if (current.isClosed()) {
+                        load.decrementAndGet();
+                        continue;
+                    }
+                    try {
+                        current.tick(skipped, bots);
+                    } catch (RuntimeException e) {
+                        Log.error("Closing session " + current.getId() + " after it failed", e);
+                        current.close();
+                        load.decrementAndGet();
+                        continue;
+                    }
+                    sessions.set(kept++, current);
+                }
+                sessions.subList(kept, sessions.size()).clear();
+                nextTick += GameLoop.TICK_NANOS;
+                skipped = 0;
+                long late = System.nanoTime() - nextTick;
+                if (late >= GameLoop.TICK_NANOS) {
+                    skipped = late / GameLoop.TICK_NANOS;
+                    missedTicks.addAndGet(skipped);
+                    nextTick += skipped * GameLoop.TICK_NANOS;
+                }
+                long remaining;
+                while ((remaining = nextTick - System.nanoTime()) > 0 && !isInterrupted()) {
+                    LockSupport.parkNanos(remaining);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package tetris;
+
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+import javax.sound.sampled.Line;
+import java.awt.*;
+import java.nio.file.Path;
+
+/**
+ * Plays the sound effects of the game. Implementations must not block the calling thread.
+ */
+interface SoundBackend {
+    /**
+     * Set this system property to {@code off} to run the game without sound.
+     */
+    String SOUND_PROPERTY = "tetris.sound";
+    /**
+     * A backend that does not play anything, for headless runs and machines without audio output.
+     */
+    SoundBackend SILENT = new SoundBackend() {
+        @Override
+        public void play(String soundFileName) { }
+
+        @Override
+        public void close() { }
+    };
+
+    /**
+     * Requests a sound to be played.
+     *
+     * @param soundFileName The name of the sound file in the asset directory.
+     */
+    void play(String soundFileName);
+
+    /**
+     * Stops playing and releases all audio resources. Sounds requested afterwards are ignored.
+     */
+    void close();
+
+    /**
+     * Creates the backend for the current environment: a {@link ClipPool} on the sound files of the given directory,
+     * or {@link #SILENT} when sound is switched off, there is no display, or no audio clip can be opened.
+     *
+     * @param directory The directory containing the sound files.
+     * @return The backend.
+     */
+    static SoundBackend create(Path directory) {
+        if ("off".equalsIgnoreCase(System.getProperty(SOUND_PROPERTY)) || GraphicsEnvironment.isHeadless()) {
+            return SILENT;
+        }
+        try {
+            if (!AudioSystem.isLineSupported(new Line.Info(Clip.class))) {
+                return SILENT;
+            }
+        } catch (IllegalArgumentException | SecurityException e) {
+            return SILENT;
+        }
+        return new ClipPool(directory);
+    }
+}
@@ -1,36 +1,40 @@
 package tetris;
 
-import javax.sound.sampled.*;
-import java.io.File;
-import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * A utility class for playing sound effects in the Tetris game.
+ * The sounds are played by a {@link SoundBackend} chosen for the environment when the first sound is played,
+ * which is closed when the JVM shuts down.
  */
 abstract class SoundPlayer {
+    private static final Path ASSETS = Path.of("src", "Assets");
 
     /**
-     * Plays a sound from the given file name.
-     * This method attempts to open an audio file, create a clip, and play it.
+     * Creates the backend on first use, so headless runs that never play a sound do not touch the audio system.
+     */
+    private static class Holder {
+        private static final SoundBackend BACKEND = SoundBackend.create(ASSETS);
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(BACKEND::close, "Sound shutdown"));
+        }
+    }
+
+    /**
+     * Plays a sound from the given file name without waiting for it.
+     * The sound is decoded once and played from a pool of reusable clips.
      *
      * @param soundFileName The name of the sound file to be played.
      */
     public static void playSound(String soundFileName) {
-        try {
-            // Open an audio input stream.
-            File soundFile = new File("src/Assets/" + soundFileName);
-            AudioInputStream audioIn = AudioSystem.getAudioInputStream(soundFile);
-            // Get a sound clip resource.
-            Clip clip = AudioSystem.getClip();
-            // Open the audio clip and load samples from the audio input stream.
-            clip.open(audioIn);
-            clip.start();
-        } catch (UnsupportedAudioFileException e) {
-            System.err.println("Audio file format not supported: " + e.getMessage());
-        } catch (IOException e) {
-            System.err.println("Error reading the audio file: " + e.getMessage());
-        } catch (LineUnavailableException e) {
-            System.err.println("Audio line for playing back is unavailable: " + e.getMessage());
+        FlightEvents.Sound event = new FlightEvents.Sound();
+        event.begin();
+        Holder.BACKEND.play(soundFileName);
+        event.end();
+        if (event.shouldCommit()) {
+            event.sound = soundFileName;
+            event.commit();
         }
     }
 }
@@ -1,17 +1,22 @@
 package tetris;
 
+import blocks.PlacementTable;
+
 import java.awt.*;
 
 /**
  * Represents a block in the Tetris game.
  * This class encapsulates the properties and behaviors of a Tetris block, such as its shape, color,
- * position, and rotation.
+ * position, and rotation. The rotations of the shape are described by a shared, immutable {@link PlacementTable}.
  */
 public class TetrisBlock {
+    public static final int SPAWN_ROTATION = 3;
+    public static final int SPAWN_Y = -1;
+    private final PlacementTable table;
     private int[][] shape;
     private final Color color;
+    private final long key;
     private int x, y;
-    private int[][][] shapes;
     private int currentRotation;
 
     /**
@@ -21,9 +26,24 @@ public class TetrisBlock {
      * @param color The color of the block.
      */
     public TetrisBlock(int[][] shape, Color color) {
-        this.shape = shape;
+        this(new PlacementTable(shape), color);
+    }
+
+    /**
+     * Constructs a new TetrisBlock with the rotations of a precomputed table.
+     *
+     * @param table The table describing the rotations of the block.
+     * @param color The color of the block.
+     */
+    public TetrisBlock(PlacementTable table, Color color) {
+        this.table = table;
         this.color = color;
-        initShapes();
+        int[][] masks = new int[PlacementTable.ROTATIONS][];
+        for (int rotation = 0; rotation < PlacementTable.ROTATIONS; rotation++) {
+            masks[rotation] = table.getMasks(rotation);
+        }
+        this.key = TranspositionTable.pieceKey(masks);
+        setCurrentRotation(SPAWN_ROTATION);
     }
 
     /**
@@ -32,44 +52,55 @@ public class TetrisBlock {
      * @param other The TetrisBlock to copy.
      */
     public TetrisBlock(TetrisBlock other) {
-        this.shape = deepCopyMatrix(other.shape);
+        this.table = other.table;
+        this.shape = other.shape;
         this.color = other.color;
+        this.key = other.key;
         this.x = other.x;
         this.y = other.y;
-        this.shapes = deepCopy3DMatrix(other.shapes);
         this.currentRotation = other.currentRotation;
     }
 
     /**
-     * Initializes the rotated versions of the original shape.
+     * Spawns the block at the top center of the game board.
+     *
+     * @param boardWidth The width of the board.
      */
-    private void initShapes() {
-        shapes = new int[4][][];
-        for (int rotation = 0; rotation < 4; rotation++) {
-            int r = shape[0].length;
-            int c = shape.length;
-            shapes[rotation] = new int[r][c];
-            for (int y = 0; y < r; y++) {
-                for (int x = 0; x < c; x++) {
-                    shapes[rotation][y][x] = shape[c-x-1][y];
-                }
-            }
-            shape = shapes[rotation];
-        }
+    public void spawn(int boardWidth) {
+        setCurrentRotation(SPAWN_ROTATION);
+        // spawn block above the board
+        y = SPAWN_Y;
+        x = getSpawnX(boardWidth);
     }
 
     /**
-     * Spawns the block at the top center of the game board.
+     * Returns the column at which the block spawns.
+     *
+     * @param boardWidth The width of the board.
+     * @return The spawn column.
      */
-    public void spawn() {
-        currentRotation = 3;
-        shape = shapes[currentRotation];
-        // spawn block above the board
-        y = -1;
+    public int getSpawnX(int boardWidth) {
         // calculate center of the board
-        x = (5-2)/getWidth();
+        return (boardWidth - getWidth(SPAWN_ROTATION)) / 2;
     }
 
+    /**
+     * Returns the horizontal shift applied to the block when it rotates into the given rotation.
+     * Blocks that do not rotate around their top left corner override this.
+     *
+     * @param rotation The rotation the block rotates into.
+     * @return The shift of the x coordinate.
+     */
+    public int getRotationShiftX(int rotation) { return 0; }
+
+    /**
+     * Returns the vertical shift applied to the block when it rotates into the given rotation.
+     *
+     * @param rotation The rotation the block rotates into.
+     * @return The shift of the y coordinate.
+     */
+    public int getRotationShiftY(int rotation) { return 0; }
+
     // Movement methods, getters and setters
 
     public void moveDown(){ y++; }
@@ -78,9 +109,17 @@ public class TetrisBlock {
     public void rotate() {
         currentRotation++;
         if (currentRotation>3) currentRotation=0;
-        shape = shapes[currentRotation];
+        shape = table.getShape(currentRotation);
+        x += getRotationShiftX(currentRotation);
+        y += getRotationShiftY(currentRotation);
     }
     public int[][] getShape() { return shape; }
+    public int[] getMasks() { return table.getMasks(currentRotation); }
+    public long getKey() { return key; }
+    public PlacementTable getTable() { return table; }
+    public int[] getMasks(int rotation) { return table.getMasks(rotation); }
+    public int getHeight(int rotation) { return table.getHeight(rotation); }
+    public int getWidth(int rotation) { return table.getWidth(rotation); }
     public Color getColor() { return color; }
     public int getHeight() { return shape.length; };
     public int getWidth() { return shape[0].length; };
@@ -95,42 +134,6 @@ public class TetrisBlock {
     public void setY(int y) { this.y = y; }
     public void setCurrentRotation(int currentRotation) {
         this.currentRotation = currentRotation;
-        this.shape = shapes[currentRotation];
-    }
-
-    // Helper methods
-
-    /**
-     * Helper method. Creates a deep copy of a 2D integer matrix.
-     *
-     * @param original The original 2D integer matrix to copy.
-     * @return A deep copy of the original matrix.
-     */
-    private int[][] deepCopyMatrix(int[][] original) {
-        if (original == null) {
-            return null;
-        }
-        int[][] result = new int[original.length][];
-        for (int i = 0; i < original.length; i++) {
-            result[i] = original[i].clone();
-        }
-        return result;
-    }
-
-    /**
-     * Helper method. Creates a deep copy of a 3D integer matrix.
-     *
-     * @param original The original 3D integer matrix to copy.
-     * @return A deep copy of the original matrix.
-     */
-    private int[][][] deepCopy3DMatrix(int[][][] original) {
-        if (original == null) {
-            return null;
-        }
-        int[][][] result = new int[original.length][][];
-        for (int i = 0; i < original.length; i++) {
-            result[i] = deepCopyMatrix(original[i]);
-        }
-        return result;
+        this.shape = table.getShape(currentRotation);
     }
 }
@@ -0,0 +1,88 @@
+package tetris;
+
+/**
+ * Decides how long the bot pauses between its actions and how often its game is rendered.
+ * A policy either waits the real time of every pause, waits one frame of a fixed frame rate per pause,
+ * or does not wait at all so that the game runs as fast as the CPU allows.
+ */
+public class TickPolicy {
+    /**
+     * Waits the requested time of every pause and renders every change.
+     */
+    public static final TickPolicy REAL_TIME = new TickPolicy(-1, 1);
+    /**
+     * Never waits and does not render the game.
+     */
+    public static final TickPolicy UNTHROTTLED = new TickPolicy(0, 0);
+
+    private final long frameMillis;
+    private final int renderEvery;
+
+    /**
+     * Constructs a tick policy.
+     *
+     * @param frameMillis The duration of one pause in milliseconds, -1 for the requested time or 0 for no pause.
+     * @param renderEvery Render the game after every n-th placed block, 0 to not render at all.
+     */
+    private TickPolicy(long frameMillis, int renderEvery) {
+        this.frameMillis = frameMillis;
+        this.renderEvery = renderEvery;
+    }
+
+    /**
+     * Creates a policy that waits exactly one frame of the given frame rate for every pause.
+     *
+     * @param fps The frame rate.
+     * @return The policy.
+     */
+    public static TickPolicy fixedRate(int fps) {
+        if (fps <= 0) throw new IllegalArgumentException("Frame rate must be positive: " + fps);
+        return new TickPolicy(Math.max(1, 1000 / fps), 1);
+    }
+
+    /**
+     * Creates a policy that never waits and renders the game after every n-th placed block.
+     *
+     * @param renderEvery The number of placed blocks between two renders, 0 to not render at all.
+     * @return The policy.
+     */
+    public static TickPolicy unthrottled(int renderEvery) {
+        return new TickPolicy(0, renderEvery);
+    }
+
+    /**
+     * Pauses the current thread according to this policy.
+     * Even when nothing is waited, an interrupt of the thread is still reported.
+     *
+     * @param millis The requested pause in milliseconds.
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    public void pause(long millis) throws InterruptedException {
+        if (frameMillis < 0) {
+            Thread.sleep(millis);
+        } else if (frameMillis > 0) {
+            Thread.sleep(frameMillis);
+        } else if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Checks if every change of the game should be rendered as it happens.
+     *
+     * @return true if the game is rendered live, otherwise false.
+     */
+    public boolean isLive() {
+        return frameMillis != 0;
+    }
+
+    /**
+     * Checks if the game should be rendered after the given number of placed blocks.
+     *
+     * @param placedBlocks The number of blocks placed so far.
+     * @return true if the game should be rendered, otherwise false.
+     */
+    public boolean shouldRender(long placedBlocks) {
+        return renderEvery > 0 && placedBlocks % renderEvery == 0;
+    }
+}
@@ -0,0 +1,168 @@
+package tetris;
+
+import java.util.Arrays;
+
+/**
+ * A bounded cache of bot search results keyed on hashes of fields and blocks.
+ * <p>
+ * A field is hashed by XOR-ing a mix of the content and the index of every row that is not empty, so the cost
+ * does not depend on the width of the field. A block is hashed by mixing its row masks.
+ * <p>
+ * This stands in for Zobrist hashing. A Zobrist table holds a random number for every row index and every content of
+ * the row, which is 2<sup>width</sup> contents for boards up to 64 columns wide, or one number per cell that costs
+ * a lookup for every filled cell. Mixing the content and the index of a row with the SplitMix64 finalizer gives every
+ * (row, content) pair a well spread number without a table, and the hash is combined with XOR like a Zobrist key.
+ * The table is split into sets of {@value #WAYS} entries. When a set is full, the CLOCK algorithm evicts an entry
+ * that was not used since the hand passed it last. Hits, misses and evictions are counted.
+ * An instance is not thread-safe.
+ */
+class TranspositionTable {
+    /**
+     * Returned by {@link #get(long)} when the key is not in the table.
+     */
+    static final int NOT_FOUND = Integer.MIN_VALUE;
+    private static final int WAYS = 4;
+    private static final long ROW_SEED = 0x9E3779B97F4A7C15L;
+
+    private final long[] keys;
+    private final int[] values;
+    private final boolean[] referenced;
+    private final byte[] hands;
+    private final int setMask;
+    private long hits, misses, evictions;
+
+    /**
+     * Constructs a table.
+     *
+     * @param capacity The maximum number of entries, rounded up to a power of two of at least {@value #WAYS}.
+     */
+    TranspositionTable(int capacity) {
+        int size = WAYS;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        keys = new long[size];
+        values = new int[size];
+        referenced = new boolean[size];
+        hands = new byte[size / WAYS];
+        setMask = size / WAYS - 1;
+    }
+
+    /**
+     * Hashes the row masks of a field.
+     *
+     * @param rows The row masks of the field.
+     * @return The hash of the field.
+     */
+    static long hash(long[] rows) {
+        long hash = 0;
+        for (int row = 0; row < rows.length; row++) {
+            if (rows[row] != 0) hash ^= mix(rows[row] + (row + 1) * ROW_SEED);
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes the rotations of a block, so that equally shaped blocks get equal keys.
+     *
+     * @param masks The row masks of every rotation of the block.
+     * @return The key of the block.
+     */
+    static long pieceKey(int[][] masks) {
+        long key = 0;
+        for (int[] rotation : masks) {
+            for (int mask : rotation) {
+                key = mix(key * 31 + mask);
+            }
+            key = mix(key + 0x632BE59BD9B4E019L);
+        }
+        return key;
+    }
+
+    /**
+     * The SplitMix64 finalizer, spreading the bits of a value over the whole hash.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Looks a key up.
+     *
+     * @param key The key.
+     * @return The stored value, or {@link #NOT_FOUND}.
+     */
+    int get(long key) {
+        key = nonZero(key);
+        int set = (int) (key ^ (key >>> 32)) & setMask;
+        for (int slot = set * WAYS; slot < set * WAYS + WAYS; slot++) {
+            if (keys[slot] == key) {
+                referenced[slot] = true;
+                hits++;
+                return values[slot];
+            }
+        }
+        misses++;
+        return NOT_FOUND;
+    }
+
+    /**
+     * Stores a value, evicting an entry of the same set if the set is full.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    void put(long key, int value) {
+        key = nonZero(key);
+        int set = (int) (key ^ (key >>> 32)) & setMask;
+        int first = set * WAYS;
+        for (int slot = first; slot < first + WAYS; slot++) {
+            if (keys[slot] == key || keys[slot] == 0) {
+                keys[slot] = key;
+                values[slot] = value;
+                referenced[slot] = true;
+                return;
+            }
+        }
+        // CLOCK: give referenced entries a second chance
+        int hand = hands[set];
+        while (referenced[first + hand]) {
+            referenced[first + hand] = false;
+            hand = (hand + 1) % WAYS;
+        }
+        int slot = first + hand;
+        keys[slot] = key;
+        values[slot] = value;
+        referenced[slot] = true;
+        hands[set] = (byte) ((hand + 1) % WAYS);
+        evictions++;
+    }
+
+    /**
+     * Removes all entries and resets the counters.
+     */
+    void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(referenced, false);
+        hits = misses = evictions = 0;
+    }
+
+    private static long nonZero(long key) {
+        // zero marks an empty slot
+        return key == 0 ? 1 : key;
+    }
+
+    long getHits() { return hits; }
+    long getMisses() { return misses; }
+    long getEvictions() { return evictions; }
+    int getCapacity() { return keys.length; }
+
+    @Override
+    public String toString() {
+        long lookups = hits + misses;
+        return String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions",
+                hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups, evictions);
+    }
+}
@@ -0,0 +1,195 @@
+package tetris;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The weights the bots rate a field by. The score of a field is the sum of every feature of the field multiplied by
+ * its weight, so features that make a field worse get negative weights.
+ * <p>
+ * The features are the lines the field completes, the height of its highest column, its holes, its bumpiness (the
+ * height differences of neighbouring columns), the depth of its wells (columns lower than both neighbours, with
+ * the walls counting as high neighbours), its row and column transitions (the changes between filled and empty
+ * cells along the rows and the columns of the stack, with the walls and the floor counting as filled) and the
+ * landing height of the placed block (the row of its lowest cell, counted from the floor). The landing height rates
+ * a single move, so it is only used by the searches that rate one move at a time, not by the beam search.
+ * <p>
+ * A profile is written as {@code name=weight} pairs separated by spaces, like {@link #toString()} does.
+ * The profile of the bots is loaded from the file given with {@value #PROFILE_PROPERTY}, and {@link WeightTuner}
+ * writes the profiles it finds in this format.
+ *
+ * @param lines             The weight of the completed lines.
+ * @param height            The weight of the height of the highest column.
+ * @param holes             The weight of the holes.
+ * @param bumpiness         The weight of the bumpiness.
+ * @param wells             The weight of the depth of the wells.
+ * @param rowTransitions    The weight of the row transitions.
+ * @param columnTransitions The weight of the column transitions.
+ * @param landingHeight     The weight of the landing height.
+ */
+public record WeightProfile(int lines, int height, int holes, int bumpiness, int wells, int rowTransitions,
+                            int columnTransitions, int landingHeight) {
+    /**
+     * The system property naming the profile file the bots of new games load, for example
+     * {@code -Dtetris.profile=weights.profile}.
+     */
+    public static final String PROFILE_PROPERTY = "tetris.profile";
+    /**
+     * The names of the features, in the order of the components of a profile.
+     */
+    public static final String[] FEATURES = {"lines", "height", "holes", "bumpiness", "wells", "rowTransitions",
+            "columnTransitions", "landingHeight"};
+    /**
+     * The hand-tuned weights of lines, height and holes the bots have always used.
+     */
+    public static final WeightProfile DEFAULT = new WeightProfile(GameEngine.LINES_WEIGHT, -GameEngine.HEIGHT_WEIGHT,
+            -GameEngine.HOLES_WEIGHT, 0, 0, 0, 0, 0);
+
+    /**
+     * Loads the selected profile on first use.
+     */
+    private static class Holder {
+        private static final WeightProfile SELECTED = loadSelected();
+    }
+
+    /**
+     * Creates a profile from its weights.
+     *
+     * @param weights The weights in the order of {@link #FEATURES}.
+     * @return The profile.
+     */
+    public static WeightProfile of(int[] weights) {
+        if (weights.length != FEATURES.length) {
+            throw new IllegalArgumentException("A profile has " + FEATURES.length + " weights: " + weights.length);
+        }
+        return new WeightProfile(weights[0], weights[1], weights[2], weights[3], weights[4], weights[5], weights[6],
+                weights[7]);
+    }
+
+    /**
+     * Returns the weights of this profile.
+     *
+     * @return A new array with the weights in the order of {@link #FEATURES}.
+     */
+    public int[] toArray() {
+        return new int[]{lines, height, holes, bumpiness, wells, rowTransitions, columnTransitions, landingHeight};
+    }
+
+    /**
+     * Checks if this profile only weighs the lines, the height and the holes, which the bots rate incrementally
+     * without looking at the rows of a field.
+     *
+     * @return true if all other weights are 0.
+     */
+    public boolean isIncremental() {
+        return bumpiness == 0 && wells == 0 && rowTransitions == 0 && columnTransitions == 0 && landingHeight == 0;
+    }
+
+    /**
+     * Checks if completed lines are the only feature that raises the score, so that a field cannot score more
+     * than the lines it could still complete. The beam search only prunes fields by this bound if it holds.
+     *
+     * @return true if the lines have a weight of at least 0 and all other features a weight of at most 0.
+     */
+    public boolean isBoundedByLines() {
+        return lines >= 0 && height <= 0 && holes <= 0 && bumpiness <= 0 && wells <= 0 && rowTransitions <= 0
+                && columnTransitions <= 0 && landingHeight <= 0;
+    }
+
+    /**
+     * Reads a profile from {@code name=weight} pairs. Features that are not given have a weight of 0.
+     *
+     * @param text The pairs, separated by whitespace.
+     * @return The profile.
+     * @throws IllegalArgumentException If a pair is malformed or names an unknown feature.
+     */
+    public static WeightProfile parse(String text) {
+        int[] weights = new int[FEATURES.length];
+        for (String pair : text.trim().split("\\s+")) {
+            if (pair.isEmpty()) continue;
+            int separator = pair.indexOf('=');
+            int feature = separator < 0 ? -1 : indexOf(pair.substring(0, separator));
+            if (feature < 0) throw new IllegalArgumentException("Not a weight: " + pair);
+            try {
+                weights[feature] = Integer.parseInt(pair.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a weight: " + pair);
+            }
+        }
+        return of(weights);
+    }
+
+    private static int indexOf(String feature) {
+        for (int i = 0; i < FEATURES.length; i++) {
+            if (FEATURES[i].equals(feature)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Loads a profile file. Blank lines and lines starting with {@code #} are skipped.
+     *
+     * @param file The file.
+     * @return The profile.
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If the file is not a profile.
+     */
+    public static WeightProfile load(Path file) throws IOException {
+        StringBuilder pairs = new StringBuilder();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank() || line.startsWith("#")) continue;
+            pairs.append(line).append(' ');
+        }
+        return parse(pairs.toString());
+    }
+
+    /**
+     * Saves this profile to a file, replacing it.
+     *
+     * @param file    The file.
+     * @param comment A line written as a comment above the weights, or null.
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(Path file, String comment) throws IOException {
+        Files.writeString(file, (comment == null ? "" : "# " + comment + System.lineSeparator())
+                + this + System.lineSeparator());
+    }
+
+    /**
+     * Returns the profile selected with {@value #PROFILE_PROPERTY}.
+     * If the profile cannot be loaded, a warning is logged and the default profile is used.
+     *
+     * @return The selected profile, {@link #DEFAULT} if none is selected.
+     */
+    public static WeightProfile selected() {
+        return Holder.SELECTED;
+    }
+
+    private static WeightProfile loadSelected() {
+        String file = System.getProperty(PROFILE_PROPERTY);
+        if (file == null) return DEFAULT;
+        try {
+            return load(Path.of(file));
+        } catch (IOException | IllegalArgumentException e) {
+            Log.warn("Could not load weight profile " + file + ", using the default weights", e);
+            return DEFAULT;
+        }
+    }
+
+    /**
+     * Formats this profile as {@code name=weight} pairs that {@link #parse(String)} reads back.
+     *
+     * @return The weights of all features.
+     */
+    @Override
+    public String toString() {
+        int[] weights = toArray();
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < FEATURES.length; i++) {
+            if (i > 0) result.append(' ');
+            result.append(FEATURES[i]).append('=').append(weights[i]);
+        }
+        return result.toString();
+    }
+}
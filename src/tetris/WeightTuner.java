@@ -0,0 +1,276 @@
+package tetris;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Tunes the weights of a {@link WeightProfile} with a genetic algorithm.
+ * <p>
+ * Every generation, each profile of the population plays the same seeded headless games with a bot mode, spread over
+ * all cores by a work-stealing {@link ForkJoinPool} like in {@link BatchEvaluator}. The fitness of a profile is the mean
+ * number of lines its games cleared. Every generation plays new seeds, so the profiles cannot fit a few lucky games.
+ * The {@value #ELITES} fittest profiles survive unchanged; the rest of the next generation are children of two parents
+ * picked by tournaments, taking every weight from one of them, of which some weights are mutated by a normally
+ * distributed step that grows with the size of the weight.
+ * <p>
+ * After every generation the fittest profile is written to the profile file, where the bots load it with
+ * {@value WeightProfile#PROFILE_PROPERTY}, and the next population is written to a checkpoint. A tuner started with
+ * an existing checkpoint resumes from it. The random decisions of a generation are seeded from the seed of the run and
+ * the number of the generation, so a resumed run breeds the same profiles as one that was not interrupted.
+ */
+public class WeightTuner {
+    public static final String CHECKPOINT_FILE = "weights.checkpoint";
+    public static final String PROFILE_FILE = "weights.profile";
+    private static final int ELITES = 2;
+    private static final int TOURNAMENT_SIZE = 3;
+    private static final double MUTATION_RATE = 0.3;
+    // the smallest standard deviation of a mutation, so weights of 0 can still change
+    private static final int MIN_STEP = 4;
+    private static final String CHECKPOINT_HEADER = "# weight tuner checkpoint";
+    private final BatchEvaluator evaluator;
+    private final ForkJoinPool pool;
+    private final int games;
+    private final int mode;
+    private final long seed;
+    private final Path checkpoint;
+    private final Path profileFile;
+
+    /**
+     * A profile of the population and the mean number of lines its games cleared.
+     */
+    private record Individual(WeightProfile profile, double fitness) {
+    }
+
+    /**
+     * Constructs a tuner.
+     *
+     * @param evaluator   The evaluator playing the games.
+     * @param parallelism The number of worker threads.
+     * @param games       The number of games every profile plays per generation.
+     * @param mode        The bot mode playing the games, see {@link BotThread#BotThread(GameArea, int)}.
+     * @param seed        The seed of the run.
+     * @param checkpoint  The file the population is saved to after every generation.
+     * @param profileFile The file the fittest profile is saved to after every generation.
+     */
+    public WeightTuner(BatchEvaluator evaluator, int parallelism, int games, int mode, long seed, Path checkpoint,
+                       Path profileFile) {
+        this.evaluator = evaluator;
+        this.pool = new ForkJoinPool(parallelism);
+        this.games = games;
+        this.mode = mode;
+        this.seed = seed;
+        this.checkpoint = checkpoint;
+        this.profileFile = profileFile;
+    }
+
+    /**
+     * Runs generations until the given number of generations was run, resuming from the checkpoint if there is one.
+     *
+     * @param generations    The number of generations of the whole run.
+     * @param populationSize The number of profiles of a new population. A resumed population keeps its size.
+     * @return The fittest profile of the last generation that was run, or null if no generation was left to run.
+     * @throws IOException If the checkpoint cannot be read, or the checkpoint or the profile cannot be written.
+     */
+    public WeightProfile run(int generations, int populationSize) throws IOException, InterruptedException,
+            ExecutionException {
+        int generation = 0;
+        List<WeightProfile> population;
+        if (Files.exists(checkpoint)) {
+            population = new ArrayList<>();
+            generation = loadCheckpoint(population);
+            System.out.println("Resuming generation " + generation + " of " + population.size() + " profiles from "
+                    + checkpoint);
+        } else {
+            population = initialPopulation(populationSize);
+        }
+        WeightProfile fittest = null;
+        for (; generation < generations; generation++) {
+            long start = System.nanoTime();
+            List<Individual> ranked = evaluate(population, generation);
+            Individual best = ranked.get(0);
+            double mean = ranked.stream().mapToDouble(Individual::fitness).average().orElse(0);
+            System.out.printf("Generation %d: best %.2f, mean %.2f lines in %.1f s: %s%n", generation, best.fitness(),
+                    mean, (System.nanoTime() - start) / 1e9, best.profile());
+            fittest = best.profile();
+            fittest.save(profileFile, String.format("generation %d, mean %.2f lines in %d games of mode %d",
+                    generation, best.fitness(), games, mode));
+            population = breed(ranked, random(generation));
+            saveCheckpoint(generation + 1, population);
+        }
+        return fittest;
+    }
+
+    /**
+     * Creates the first population: the default profile and mutations of every weight of it.
+     */
+    private List<WeightProfile> initialPopulation(int size) {
+        Random random = random(-1);
+        List<WeightProfile> population = new ArrayList<>();
+        population.add(WeightProfile.DEFAULT);
+        while (population.size() < size) {
+            population.add(mutate(WeightProfile.DEFAULT.toArray(), 1, random));
+        }
+        return population;
+    }
+
+    /**
+     * Plays the games of a generation with every profile.
+     *
+     * @return The profiles, the fittest first. Profiles of equal fitness keep their order.
+     */
+    private List<Individual> evaluate(List<WeightProfile> population, int generation)
+            throws InterruptedException, ExecutionException {
+        long firstSeed = seed + (long) generation * games;
+        int[] lines = pool.submit(() -> IntStream.range(0, population.size() * games)
+                .parallel()
+                .map(i -> evaluator.play(mode, firstSeed + i % games, population.get(i / games)).lines())
+                .toArray()).get();
+        List<Individual> ranked = new ArrayList<>();
+        for (int i = 0; i < population.size(); i++) {
+            int sum = Arrays.stream(lines, i * games, (i + 1) * games).sum();
+            ranked.add(new Individual(population.get(i), (double) sum / games));
+        }
+        ranked.sort(Comparator.comparingDouble(Individual::fitness).reversed());
+        return ranked;
+    }
+
+    /**
+     * Breeds the next population from a ranked one.
+     */
+    private static List<WeightProfile> breed(List<Individual> ranked, Random random) {
+        List<WeightProfile> next = new ArrayList<>();
+        for (int i = 0; i < Math.min(ELITES, ranked.size()); i++) {
+            next.add(ranked.get(i).profile());
+        }
+        while (next.size() < ranked.size()) {
+            int[] first = select(ranked, random).toArray();
+            int[] second = select(ranked, random).toArray();
+            for (int gene = 0; gene < first.length; gene++) {
+                if (random.nextBoolean()) first[gene] = second[gene];
+            }
+            next.add(mutate(first, MUTATION_RATE, random));
+        }
+        return next;
+    }
+
+    /**
+     * Picks the fittest of a few random profiles.
+     */
+    private static WeightProfile select(List<Individual> ranked, Random random) {
+        int best = ranked.size();
+        for (int i = 0; i < TOURNAMENT_SIZE; i++) {
+            best = Math.min(best, random.nextInt(ranked.size()));
+        }
+        return ranked.get(best).profile();
+    }
+
+    /**
+     * Mutates some weights by a normally distributed step whose standard deviation is a quarter of the weight,
+     * but at least {@value #MIN_STEP}.
+     *
+     * @param weights The weights, changed in place.
+     * @param rate    The probability of every weight to mutate.
+     * @param random  The source of the mutations.
+     * @return The profile of the mutated weights.
+     */
+    private static WeightProfile mutate(int[] weights, double rate, Random random) {
+        for (int gene = 0; gene < weights.length; gene++) {
+            if (random.nextDouble() < rate) {
+                double step = Math.max(MIN_STEP, Math.abs(weights[gene]) / 4.0);
+                weights[gene] += (int) Math.round(random.nextGaussian() * step);
+            }
+        }
+        return WeightProfile.of(weights);
+    }
+
+    /**
+     * Returns the source of the random decisions of breeding after a generation.
+     */
+    private Random random(int generation) {
+        return new Random(seed * 0x9E3779B97F4A7C15L + generation);
+    }
+
+    /**
+     * Writes the number of the next generation and its population to a temporary file that atomically replaces the
+     * checkpoint, so an interrupted run leaves a complete checkpoint behind.
+     */
+    private void saveCheckpoint(int generation, List<WeightProfile> population) throws IOException {
+        StringBuilder text = new StringBuilder(CHECKPOINT_HEADER).append(System.lineSeparator())
+                .append("generation ").append(generation).append(System.lineSeparator());
+        for (WeightProfile profile : population) {
+            text.append(profile).append(System.lineSeparator());
+        }
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        Files.writeString(temporary, text);
+        Files.move(temporary, checkpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads the population of the checkpoint.
+     *
+     * @param population The list the profiles are added to.
+     * @return The number of the generation the checkpoint holds.
+     */
+    private int loadCheckpoint(List<WeightProfile> population) throws IOException {
+        List<String> lines = Files.readAllLines(checkpoint);
+        if (lines.size() < 3 || !lines.get(0).equals(CHECKPOINT_HEADER) || !lines.get(1).startsWith("generation ")) {
+            throw new IOException(checkpoint + " is not a checkpoint of the weight tuner");
+        }
+        try {
+            for (String line : lines.subList(2, lines.size())) {
+                if (!line.isBlank()) population.add(WeightProfile.parse(line));
+            }
+            return Integer.parseInt(lines.get(1).substring("generation ".length()).trim());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(checkpoint + " is damaged: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Shuts the worker threads down.
+     */
+    public void shutdown() {
+        pool.shutdown();
+        evaluator.shutdown();
+    }
+
+    /**
+     * Runs the tuner from the command line.
+     * Usage: {@code java [-Dtetris.board=<width>x<height>] tetris.WeightTuner [generations] [population] [games] [mode]
+     * [seed] [maxBlocks]}, by default 30 generations of 32 profiles playing 50 games of mode 2 from seed 0 with at most
+     * 1000 blocks. The population is checkpointed to {@value #CHECKPOINT_FILE} and the fittest profile is written
+     * to {@value #PROFILE_FILE}; delete the checkpoint to start a new run.
+     *
+     * @param args Command line arguments as described above.
+     */
+    public static void main(String[] args) throws Exception {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int population = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int mode = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 0;
+        int maxBlocks = args.length > 5 ? Integer.parseInt(args[5]) : 1000;
+        int[] size = BatchEvaluator.selectedSize();
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        // the evaluator only plays the games, its pool stays unused
+        BatchEvaluator evaluator = new BatchEvaluator(games, seed, maxBlocks, 1, size[0], size[1]);
+        WeightTuner tuner = new WeightTuner(evaluator, parallelism, games, mode, seed, Path.of(CHECKPOINT_FILE),
+                Path.of(PROFILE_FILE));
+        try {
+            WeightProfile fittest = tuner.run(generations, population);
+            if (fittest != null) System.out.println("Saved " + fittest + " to " + PROFILE_FILE);
+        } finally {
+            tuner.shutdown();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the solutions of the dancing links search against Knuth's example, against trying every set of rows of
+ * small random problems, and against the known numbers of ways to tile rectangles with the twelve pentominoes.
+ */
+class ExactCoverTest {
+    // the cells of the twelve free pentominoes, as x and y pairs
+    private static final int[][] PENTOMINOES = {
+            {1, 0, 2, 0, 0, 1, 1, 1, 1, 2}, // F
+            {0, 0, 0, 1, 0, 2, 0, 3, 0, 4}, // I
+            {0, 0, 0, 1, 0, 2, 0, 3, 1, 3}, // L
+            {1, 0, 1, 1, 1, 2, 0, 2, 0, 3}, // N
+            {0, 0, 1, 0, 0, 1, 1, 1, 0, 2}, // P
+            {0, 0, 1, 0, 2, 0, 1, 1, 1, 2}, // T
+            {0, 0, 2, 0, 0, 1, 1, 1, 2, 1}, // U
+            {0, 0, 0, 1, 0, 2, 1, 2, 2, 2}, // V
+            {0, 0, 0, 1, 1, 1, 1, 2, 2, 2}, // W
+            {1, 0, 0, 1, 1, 1, 2, 1, 1, 2}, // X
+            {1, 0, 0, 1, 1, 1, 1, 2, 1, 3}, // Y
+            {0, 0, 1, 0, 1, 1, 1, 2, 2, 2}, // Z
+    };
+
+    @Test
+    void solvesKnuthsExample() {
+        // the columns A to G of the example in "Dancing Links"
+        ExactCover cover = new ExactCover(7, 0);
+        cover.addRow(2, 4, 5);
+        cover.addRow(0, 3, 6);
+        cover.addRow(1, 2, 5);
+        cover.addRow(0, 3);
+        cover.addRow(1, 6);
+        cover.addRow(3, 4, 6);
+        List<int[]> solutions = cover.solutions().toList();
+        assertEquals(1, solutions.size());
+        assertArrayEquals(new int[]{0, 3, 4}, solutions.get(0));
+        // every stream searches its own links
+        assertEquals(1, cover.solutions().count());
+    }
+
+    @Test
+    void rejectsUnknownColumns() {
+        ExactCover cover = new ExactCover(3, 1);
+        assertThrows(IllegalArgumentException.class, () -> cover.addRow(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> cover.addRow(-1));
+    }
+
+    @Test
+    void findsTheSolutionsOfTryingEverySetOfRows() {
+        Random random = new Random(3);
+        for (int problem = 0; problem < 500; problem++) {
+            int primary = 1 + random.nextInt(7);
+            int secondary = random.nextInt(3);
+            int columns = primary + secondary;
+            List<int[]> rows = new ArrayList<>();
+            for (int row = 0, count = 1 + random.nextInt(12); row < count; row++) {
+                int size = 1 + random.nextInt(Math.min(3, columns));
+                rows.add(random.ints(0, columns).distinct().limit(size).toArray());
+            }
+            ExactCover cover = new ExactCover(primary, secondary);
+            rows.forEach(cover::addRow);
+            Set<String> found = cover.solutions().map(Arrays::toString).collect(Collectors.toSet());
+            assertEquals(bruteForce(rows, primary, columns), found, "problem " + problem);
+        }
+    }
+
+    private static Set<String> bruteForce(List<int[]> rows, int primary, int columns) {
+        Set<String> solutions = new HashSet<>();
+        for (int set = 0; set < 1 << rows.size(); set++) {
+            int[] covered = new int[columns];
+            boolean exact = true;
+            for (int row = 0; row < rows.size(); row++) {
+                if ((set & 1 << row) == 0) continue;
+                // rows of secondary columns only are never chosen
+                if (Arrays.stream(rows.get(row)).allMatch(column -> column >= primary)) exact = false;
+                for (int column : rows.get(row)) {
+                    covered[column]++;
+                }
+            }
+            for (int column = 0; column < columns; column++) {
+                if (covered[column] > 1 || column < primary && covered[column] == 0) exact = false;
+            }
+            if (exact) {
+                int chosen = set;
+                solutions.add(Arrays.toString(
+                        IntStream.range(0, rows.size()).filter(row -> (chosen & 1 << row) != 0).toArray()));
+            }
+        }
+        return solutions;
+    }
+
+    @Test
+    void countsThePentominoTilingsOfRectangles() {
+        // every tiling four times, once for every symmetry of the rectangle
+        assertEquals(8, pentominoTilings(20, 3));
+        assertEquals(1472, pentominoTilings(15, 4));
+        assertEquals(4040, pentominoTilings(12, 5));
+        assertEquals(9356, pentominoTilings(10, 6));
+    }
+
+    private static long pentominoTilings(int width, int height) {
+        ExactCover cover = new ExactCover(PENTOMINOES.length + width * height, 0);
+        for (int piece = 0; piece < PENTOMINOES.length; piece++) {
+            for (int[] cells : orientations(PENTOMINOES[piece])) {
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        int[] columns = new int[6];
+                        columns[0] = piece;
+                        boolean fits = true;
+                        for (int cell = 0; cell < 5 && fits; cell++) {
+                            int cx = x + cells[2 * cell];
+                            int cy = y + cells[2 * cell + 1];
+                            fits = cx < width && cy < height;
+                            columns[cell + 1] = PENTOMINOES.length + cy * width + cx;
+                        }
+                        if (fits) cover.addRow(columns);
+                    }
+                }
+            }
+        }
+        return cover.solutions().count();
+    }
+
+    /**
+     * The distinct rotations and reflections of a piece, each moved to the top left corner.
+     */
+    private static List<int[]> orientations(int[] piece) {
+        Set<String> seen = new HashSet<>();
+        List<int[]> orientations = new ArrayList<>();
+        for (int transform = 0; transform < 8; transform++) {
+            int[][] cells = new int[5][];
+            for (int cell = 0; cell < 5; cell++) {
+                int x = piece[2 * cell];
+                int y = piece[2 * cell + 1];
+                if ((transform & 1) != 0) x = -x;
+                if ((transform & 2) != 0) y = -y;
+                cells[cell] = (transform & 4) != 0 ? new int[]{y, x} : new int[]{x, y};
+            }
+            int minX = Arrays.stream(cells).mapToInt(cell -> cell[0]).min().orElseThrow();
+            int minY = Arrays.stream(cells).mapToInt(cell -> cell[1]).min().orElseThrow();
+            Arrays.sort(cells, (a, b) -> a[1] != b[1] ? a[1] - b[1] : a[0] - b[0]);
+            int[] normalized = new int[10];
+            for (int cell = 0; cell < 5; cell++) {
+                normalized[2 * cell] = cells[cell][0] - minX;
+                normalized[2 * cell + 1] = cells[cell][1] - minY;
+            }
+            if (seen.add(Arrays.toString(normalized))) orientations.add(normalized);
+        }
+        return orientations;
+    }
+}
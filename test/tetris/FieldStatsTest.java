@@ -0,0 +1,85 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the statistics updated incrementally by placing blocks and clearing rows stay the same as the ones
+ * computed from scratch, and that rating a placement gives the score of the field with the block placed.
+ */
+class FieldStatsTest {
+    private static final int GAMES = 200;
+    private static final int BLOCKS = 60;
+
+    @Test
+    void incrementalUpdatesMatchRecompute() {
+        for (int[] size : new int[][]{{Board.DEFAULT_WIDTH, Board.DEFAULT_HEIGHT}, {10, 20}, {64, 30}}) {
+            playRandomGames(size[0], size[1]);
+        }
+    }
+
+    private static void playRandomGames(int width, int height) {
+        Random random = new Random(width * 31L + height);
+        TetrisBlock[] shapes = new GameEngine(false).allBlocks;
+        FieldStats stats = new FieldStats(width, height);
+        FieldStats expected = new FieldStats(width, height);
+        for (int game = 0; game < GAMES; game++) {
+            long[] rows = new long[height];
+            stats.compute(rows);
+            for (int i = 0; i < BLOCKS; i++) {
+                TetrisBlock block = new TetrisBlock(shapes[random.nextInt(shapes.length)]);
+                block.spawn(width);
+                int[] placements = block.getTable().getPlacements(width);
+                int landing = MoveSearch.land(rows, width, stats.getHeights(), block, block.getX(), block.getY(),
+                        block.getCurrentRotation(), placements[random.nextInt(placements.length)]);
+                int[] masks = block.getMasks(MoveSearch.rotationOf(landing));
+                int x = MoveSearch.xOf(landing);
+                int y = MoveSearch.yOf(landing);
+                if (y < 0) break;
+                int rating = stats.ratePlacement(rows, masks, x, y, WeightProfile.DEFAULT);
+
+                stats.place(rows, masks, x, y);
+                expected.compute(rows);
+                assertSameStats(expected, stats, height);
+                assertEquals(GameEngine.rateField(rows, width), rating);
+                assertEquals(expected.rate(WeightProfile.DEFAULT, rows), rating);
+
+                long[] cleared = rows.clone();
+                int lines = Board.clearFullRows(cleared, width);
+                assertEquals(lines, stats.clearFullRows(rows));
+                assertArrayEquals(cleared, rows);
+                expected.compute(rows);
+                assertSameStats(expected, stats, height);
+            }
+        }
+    }
+
+    private static void assertSameStats(FieldStats expected, FieldStats actual, int height) {
+        assertArrayEquals(expected.getHeights(), actual.getHeights());
+        for (int row = 0; row < height; row++) {
+            assertEquals(expected.getRowCount(row), actual.getRowCount(row), "cells of row " + row);
+        }
+        assertEquals(expected.getMaxHeight(), actual.getMaxHeight(), "max height");
+        assertEquals(expected.getHoles(), actual.getHoles(), "holes");
+        assertEquals(expected.getFullRows(), actual.getFullRows(), "full rows");
+        assertEquals(expected.getCells(), actual.getCells(), "cells");
+    }
+
+    @Test
+    void copyKeepsEveryStatistic() {
+        Random random = new Random(7);
+        long[] rows = new long[Board.DEFAULT_HEIGHT];
+        for (int row = 5; row < rows.length; row++) {
+            rows[row] = random.nextLong() & Board.fullRow(Board.DEFAULT_WIDTH);
+        }
+        FieldStats stats = new FieldStats(Board.DEFAULT_WIDTH, Board.DEFAULT_HEIGHT);
+        stats.compute(rows);
+        FieldStats copy = new FieldStats(Board.DEFAULT_WIDTH, Board.DEFAULT_HEIGHT);
+        copy.copyFrom(stats);
+        assertSameStats(stats, copy, Board.DEFAULT_HEIGHT);
+    }
+}
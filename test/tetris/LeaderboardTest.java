@@ -0,0 +1,133 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tetris.HighScoresScreen.Player;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the leaderboard against a plain list of every score added, sorted by score and, of equal scores, by the
+ * order they were added in: after adding, after opening the log again, after a torn entry was cut off and after the
+ * log was compacted.
+ */
+class LeaderboardTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void showsTheBestScoresAndKeepsThemOnDisk() throws IOException {
+        Path file = directory.resolve("leaderboard.dat");
+        List<Player> added = new ArrayList<>();
+        Random random = new Random(1);
+        try (Leaderboard leaderboard = new Leaderboard(file, null, Leaderboard.CAPACITY)) {
+            for (int i = 0; i < 300; i++) {
+                Player player = new Player("player " + i, random.nextInt(50));
+                leaderboard.add(player.name(), player.score());
+                added.add(player);
+                assertEquals(best(added), leaderboard.getTopScores());
+            }
+        }
+        try (Leaderboard reopened = new Leaderboard(file, null, Leaderboard.CAPACITY)) {
+            assertEquals(best(added), reopened.getTopScores());
+        }
+    }
+
+    @Test
+    void cutsOffATornEntry() throws IOException {
+        Path file = directory.resolve("leaderboard.dat");
+        List<Player> added = new ArrayList<>();
+        try (Leaderboard leaderboard = new Leaderboard(file, null, Leaderboard.CAPACITY)) {
+            for (int i = 0; i < 5; i++) {
+                leaderboard.add("player " + i, i * 10);
+                added.add(new Player("player " + i, i * 10));
+            }
+        }
+        long size = Files.size(file);
+        // the start of an entry with a name of 8 bytes, cut off by a crash before its score and checksum
+        Files.write(file, new byte[]{0, 8, 'i', 'n', 't', 'r', 'u'}, StandardOpenOption.APPEND);
+        try (Leaderboard leaderboard = new Leaderboard(file, null, Leaderboard.CAPACITY)) {
+            assertEquals(best(added), leaderboard.getTopScores());
+            assertEquals(size, Files.size(file));
+            leaderboard.add("after the crash", 25);
+            added.add(new Player("after the crash", 25));
+        }
+        try (Leaderboard reopened = new Leaderboard(file, null, Leaderboard.CAPACITY)) {
+            assertEquals(best(added), reopened.getTopScores());
+        }
+    }
+
+    @Test
+    void ignoresAnEntryWithAWrongChecksum() throws IOException {
+        Path file = directory.resolve("leaderboard.dat");
+        try (Leaderboard leaderboard = new Leaderboard(file, null, Leaderboard.CAPACITY)) {
+            leaderboard.add("kept", 10);
+            leaderboard.add("damaged", 20);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        // a bit of the score of the last entry flipped
+        bytes[bytes.length - Integer.BYTES - 1] ^= 1;
+        Files.write(file, bytes);
+        try (Leaderboard leaderboard = new Leaderboard(file, null, Leaderboard.CAPACITY)) {
+            assertEquals(List.of(new Player("kept", 10)), leaderboard.getTopScores());
+        }
+    }
+
+    @Test
+    void compactsTheLogToTheKeptScores() throws IOException {
+        Path file = directory.resolve("leaderboard.dat");
+        int capacity = 20;
+        List<Player> added = new ArrayList<>();
+        Random random = new Random(2);
+        long largest = 0;
+        try (Leaderboard leaderboard = new Leaderboard(file, null, capacity)) {
+            for (int i = 0; i < capacity + Leaderboard.COMPACTION_THRESHOLD + 10; i++) {
+                Player player = new Player("p" + i, random.nextInt(1000));
+                leaderboard.add(player.name(), player.score());
+                added.add(player);
+                largest = Math.max(largest, Files.size(file));
+            }
+        }
+        // compacted once, then a few more entries appended
+        assertTrue(Files.size(file) < largest / 10, "the log was not compacted");
+        assertFalse(Files.exists(directory.resolve("leaderboard.dat.tmp")));
+        try (Leaderboard reopened = new Leaderboard(file, null, capacity)) {
+            assertEquals(best(added), reopened.getTopScores());
+        }
+    }
+
+    @Test
+    void migratesTheTextLeaderboard() throws IOException {
+        Path file = directory.resolve("leaderboard.dat");
+        Path legacy = directory.resolve("leaderboard.txt");
+        Files.writeString(legacy, "alice - 30\nnot a score\nbob - x\ncarol - dash - 40\n");
+        try (Leaderboard leaderboard = new Leaderboard(file, legacy, Leaderboard.CAPACITY)) {
+            assertEquals(List.of(new Player("carol - dash", 40), new Player("alice", 30)), leaderboard.getTopScores());
+        }
+        Files.delete(legacy);
+        try (Leaderboard reopened = new Leaderboard(file, legacy, Leaderboard.CAPACITY)) {
+            assertEquals(List.of(new Player("carol - dash", 40), new Player("alice", 30)), reopened.getTopScores());
+        }
+    }
+
+    /**
+     * The scores a leaderboard shows, computed from every score ever added.
+     */
+    private static List<Player> best(List<Player> added) {
+        List<Player> sorted = new ArrayList<>(added);
+        // a stable sort, so equal scores keep the order they were added in
+        sorted.sort(Comparator.comparingInt(Player::score).reversed());
+        return List.copyOf(sorted.subList(0, Math.min(Leaderboard.DISPLAYED, sorted.size())));
+    }
+}
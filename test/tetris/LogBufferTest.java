@@ -0,0 +1,86 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the ring buffer of the log against the behaviour of a bounded queue: elements come out in the order they
+ * went in, a full buffer rejects elements, and elements of many producers are neither lost nor duplicated.
+ */
+class LogBufferTest {
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 100_000;
+
+    @Test
+    void rejectsCapacityThatIsNoPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new LogBuffer<String>(0));
+        assertThrows(IllegalArgumentException.class, () -> new LogBuffer<String>(12));
+    }
+
+    @Test
+    void keepsOrderAndRejectsWhenFull() {
+        LogBuffer<Integer> buffer = new LogBuffer<>(4);
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll());
+        // several rounds, so every slot is reused
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(buffer.offer(round * 4 + i));
+            }
+            assertFalse(buffer.offer(-1));
+            for (int i = 0; i < 4; i++) {
+                assertFalse(buffer.isEmpty());
+                assertEquals(round * 4 + i, buffer.poll());
+            }
+            assertTrue(buffer.isEmpty());
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    void deliversEveryElementOfManyProducersOnce() throws InterruptedException {
+        LogBuffer<Integer> buffer = new LogBuffer<>(64);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < PER_PRODUCER; i++) {
+                    // yield instead of spinning, so the threads also make progress on a single core
+                    while (!buffer.offer(producer * PER_PRODUCER + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        // the next element expected from every producer, since the elements of one producer keep their order
+        int[] next = new int[PRODUCERS];
+        for (int taken = 0; taken < PRODUCERS * PER_PRODUCER; ) {
+            Integer element = buffer.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = element / PER_PRODUCER;
+            assertEquals(next[producer]++, element % PER_PRODUCER, "element of producer " + producer);
+            taken++;
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertTrue(buffer.isEmpty());
+        for (int p = 0; p < PRODUCERS; p++) {
+            assertEquals(PER_PRODUCER, next[p]);
+        }
+    }
+}
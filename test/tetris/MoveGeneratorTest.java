@@ -0,0 +1,87 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays the paths of the move generator on a {@link GameEngine} and checks that every one leaves the block resting
+ * in its lock position, and that the generator finds every position a straight drop of {@link MoveSearch#land} does.
+ */
+class MoveGeneratorTest {
+    private static final int FIELDS = 40;
+    // the top rows stay empty, so every block can spawn
+    private static final int FREE_ROWS = 5;
+
+    @Test
+    void pathsLeadToTheirLockPositions() throws InterruptedException {
+        for (int[] size : new int[][]{{Board.DEFAULT_WIDTH, Board.DEFAULT_HEIGHT}, {10, 20}}) {
+            int width = size[0];
+            int height = size[1];
+            Random random = new Random(width);
+            MoveGenerator generator = new MoveGenerator(width, height);
+            FieldStats stats = new FieldStats(width, height);
+            GameEngine engine = new GameEngine(new FixedRandomizer(), random, width, height);
+            engine.setTickPolicy(TickPolicy.UNTHROTTLED);
+            for (int i = 0; i < FIELDS; i++) {
+                long[] rows = randomField(random, width, height);
+                stats.compute(rows);
+                for (int shape = 0; shape < Randomizer.SHAPES.size(); shape++) {
+                    TetrisBlock block = Randomizer.SHAPES.get(shape).get();
+                    block.spawn(width);
+                    int count = generator.generate(rows, stats.getHeights(), block, block.getX(), block.getY(),
+                            block.getCurrentRotation());
+                    int[] locks = new int[count];
+                    GameInput[][] paths = new GameInput[count][];
+                    for (int lock = 0; lock < count; lock++) {
+                        locks[lock] = generator.getLock(lock);
+                        paths[lock] = generator.getPath(lock);
+                    }
+                    for (int lock = 0; lock < count; lock++) {
+                        engine.getBoard().load(rows, Color.GRAY);
+                        engine.setRandomizer(new FixedRandomizer(new int[]{shape}));
+                        engine.spawnBlock();
+                        engine.carryPath(paths[lock], false);
+                        TetrisBlock played = engine.getBlock();
+                        int rotation = played.getCurrentRotation();
+                        String where = "field " + i + ", shape " + shape + ", path " + Arrays.toString(paths[lock]);
+                        assertEquals(locks[lock], played.getTable().getCanonicalRotation(rotation) << 24
+                                | played.getX() << 16 | played.getY(), where);
+                        assertTrue(Board.collides(rows, width, played.getMasks(rotation), played.getX(),
+                                played.getY() + 1), "the block can still move down, " + where);
+                    }
+                    for (int placement : block.getTable().getPlacements(width)) {
+                        int landing = MoveSearch.land(rows, width, stats.getHeights(), block, block.getX(),
+                                block.getY(), block.getCurrentRotation(), placement);
+                        int canonical = block.getTable().getCanonicalRotation(MoveSearch.rotationOf(landing)) << 24
+                                | landing & 0xFFFFFF;
+                        assertTrue(Arrays.stream(locks).anyMatch(lock -> lock == canonical),
+                                "the drop to " + MoveSearch.xOf(landing) + ", " + MoveSearch.yOf(landing)
+                                        + " was not generated on field " + i + " for shape " + shape);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A field with a random stack and a few cells floating above it, which make overhangs to tuck under.
+     */
+    private static long[] randomField(Random random, int width, int height) {
+        long fullRow = Board.fullRow(width);
+        long[] rows = new long[height];
+        int stacked = random.nextInt(height - FREE_ROWS - 2);
+        for (int row = height - stacked; row < height; row++) {
+            rows[row] = random.nextLong() & fullRow & ~(1L << random.nextInt(width));
+        }
+        for (int cell = 0; cell < 3; cell++) {
+            rows[FREE_ROWS + 2 + random.nextInt(height - FREE_ROWS - 2)] |= 1L << random.nextInt(width);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,164 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the perfect clear oracle against trying every lock position of every block in turn. Every path the oracle
+ * finds has to lead to a perfect clear, and it has to find one whenever the blocks can fill the bottom rows without
+ * clearing a row before the last of them, which are the perfect clears it is meant to find.
+ */
+class PerfectClearTest {
+    private static final int WIDTH = Board.DEFAULT_WIDTH;
+    private static final int HEIGHT = Board.DEFAULT_HEIGHT;
+    private final MoveGenerator generator = new MoveGenerator(WIDTH, HEIGHT);
+    private final FieldStats stats = new FieldStats(WIDTH, HEIGHT);
+
+    @Test
+    void agreesWithTryingEveryLockPosition() {
+        Random random = new Random(5);
+        PerfectClear perfectClear = new PerfectClear(WIDTH, HEIGHT);
+        int found = 0;
+        int missed = 0;
+        for (int field = 0; field < 300; field++) {
+            int rows = 1 + random.nextInt(PerfectClear.ORACLE_ROWS - 1);
+            int count = 1 + random.nextInt(field % 10 == 0 ? rows : Math.min(rows, 2));
+            TetrisBlock[] blocks = new TetrisBlock[count];
+            long[] field0 = carve(random, rows, blocks);
+            // every third field is dealt blocks it was not carved for
+            if (field % 3 == 0) {
+                for (int i = 0; i < count; i++) {
+                    blocks[i] = spawned(random.nextInt(Randomizer.SHAPES.size()));
+                }
+            }
+            GameInput[] path = perfectClear.findPath(field0, blocks);
+            String where = "field " + field + " " + Arrays.toString(field0);
+            if (path != null) {
+                found++;
+                assertTrue(pathClears(field0, blocks, path), "the path does not lead to a perfect clear on " + where);
+            } else {
+                missed++;
+                assertTrue(!clears(field0, blocks, 0, true), "no perfect clear found on " + where);
+            }
+        }
+        // both outcomes were checked
+        assertNotEquals(0, found);
+        assertNotEquals(0, missed);
+    }
+
+    @Test
+    void onlySearchesLowStacksOnNarrowBoards() {
+        TetrisBlock[] blocks = {spawned(1)};
+        long[] high = new long[HEIGHT];
+        for (int row = HEIGHT - PerfectClear.ORACLE_ROWS - 1; row < HEIGHT; row++) {
+            high[row] = Board.fullRow(WIDTH) & ~1L;
+        }
+        assertNull(new PerfectClear(WIDTH, HEIGHT).findPath(high, blocks));
+        int wide = PerfectClear.ORACLE_WIDTH + 1;
+        TetrisBlock block = Randomizer.SHAPES.get(1).get();
+        block.spawn(wide);
+        assertNull(new PerfectClear(wide, 20).findPath(new long[20], new TetrisBlock[]{block}));
+    }
+
+    private static TetrisBlock spawned(int shape) {
+        TetrisBlock block = Randomizer.SHAPES.get(shape).get();
+        block.spawn(WIDTH);
+        return block;
+    }
+
+    /**
+     * Fills the bottom rows and takes the cells of random blocks out of every one of them, the last block first, so
+     * the blocks fill the rows again if they can get into their holes.
+     */
+    private static long[] carve(Random random, int rows, TetrisBlock[] blocks) {
+        while (true) {
+            long[] field = new long[HEIGHT];
+            for (int row = HEIGHT - rows; row < HEIGHT; row++) {
+                field[row] = Board.fullRow(WIDTH);
+            }
+            boolean carved = true;
+            for (int i = blocks.length - 1; i >= 0 && carved; i--) {
+                blocks[i] = spawned(random.nextInt(Randomizer.SHAPES.size()));
+                carved = false;
+                for (int attempt = 0; attempt < 50 && !carved; attempt++) {
+                    int rotation = random.nextInt(4);
+                    int[] masks = blocks[i].getMasks(rotation);
+                    int x = random.nextInt(WIDTH - blocks[i].getWidth(rotation) + 1);
+                    int y = HEIGHT - rows + random.nextInt(Math.max(1, rows - masks.length + 1));
+                    if (y + masks.length > HEIGHT || !filled(field, masks, x, y)) continue;
+                    for (int r = 0; r < masks.length; r++) {
+                        field[y + r] &= ~((long) masks[r] << x);
+                    }
+                    carved = true;
+                }
+            }
+            // the game clears full rows as soon as they are filled, so no field holds one
+            if (carved && Arrays.stream(field).noneMatch(row -> row == Board.fullRow(WIDTH))) return field;
+        }
+    }
+
+    private static boolean filled(long[] field, int[] masks, int x, int y) {
+        for (int r = 0; r < masks.length; r++) {
+            long mask = (long) masks[r] << x;
+            if ((field[y + r] & mask) != mask) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Plays the first block along the path and checks that the blocks after it can clear the field.
+     */
+    private boolean pathClears(long[] rows, TetrisBlock[] blocks, GameInput[] path) {
+        stats.compute(rows);
+        TetrisBlock block = blocks[0];
+        int count = generator.generate(rows, stats.getHeights(), block, block.getX(), block.getY(),
+                block.getCurrentRotation());
+        for (int i = 0; i < count; i++) {
+            if (!Arrays.equals(path, generator.getPath(i))) continue;
+            long[] field = rows.clone();
+            int lock = generator.getLock(i);
+            Board.place(field, block.getMasks(MoveSearch.rotationOf(lock)), MoveSearch.xOf(lock), MoveSearch.yOf(lock));
+            Board.clearFullRows(field, WIDTH);
+            return isEmpty(field) || clears(field, blocks, 1, false);
+        }
+        return false;
+    }
+
+    /**
+     * Tries every lock position of the blocks from the given one on, in turn.
+     *
+     * @param low Specifies whether the blocks have to stay within the rows the oracle looks at and may only clear rows
+     *            with the block that clears the field.
+     */
+    private boolean clears(long[] rows, TetrisBlock[] blocks, int next, boolean low) {
+        if (next == blocks.length) return false;
+        TetrisBlock block = blocks[next];
+        stats.compute(rows);
+        int count = generator.generate(rows, stats.getHeights(), block, block.getX(), block.getY(),
+                block.getCurrentRotation());
+        int[] locks = new int[count];
+        Arrays.setAll(locks, generator::getLock);
+        for (int lock : locks) {
+            int y = MoveSearch.yOf(lock);
+            if (low && y < HEIGHT - PerfectClear.ORACLE_ROWS) continue;
+            long[] field = rows.clone();
+            Board.place(field, block.getMasks(MoveSearch.rotationOf(lock)), MoveSearch.xOf(lock), y);
+            int cleared = Board.clearFullRows(field, WIDTH);
+            if (isEmpty(field)) return true;
+            if (low && cleared > 0) continue;
+            if (clears(field, blocks, next + 1, low)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isEmpty(long[] rows) {
+        return Arrays.stream(rows).allMatch(row -> row == 0);
+    }
+}
@@ -0,0 +1,86 @@
+package tetris;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Records games of random inputs, with ticks skipped now and then, the way {@link GameThread} does, and checks that
+ * {@link ReplayPlayer} plays them back to the same score in the same number of ticks.
+ */
+class ReplayTest {
+    private static final int GAMES = 20;
+    private static final long MAX_TICKS = 1_000_000;
+
+    @Test
+    void replaysEndLikeTheRecordedGames() throws IOException {
+        for (int kind : new int[]{Randomizer.BAG, Randomizer.DOUBLE_BAG, Randomizer.HISTORY, Randomizer.FIXED}) {
+            for (int game = 0; game < GAMES; game++) {
+                Recording recording = record(kind, kind * 1000L + game);
+                ReplayPlayer.Result result = ReplayPlayer.play(recording.replay());
+                assertTrue(result.matches(), "game " + game + " of randomizer " + kind + ": " + result);
+                assertEquals(recording.score(), result.score());
+                assertEquals(recording.ticks(), result.ticks());
+            }
+        }
+    }
+
+    @Test
+    void aChangedRecordingDoesNotMatch() throws IOException {
+        byte[] changed = record(Randomizer.BAG, 1).replay();
+        // the last byte of the seed, after the magic number, the version and the kind of randomizer
+        changed[13] ^= 1;
+        assertFalse(ReplayPlayer.play(changed).matches());
+    }
+
+    @Test
+    void rejectsWhatIsNoReplay() {
+        byte[] replay = record(Randomizer.BAG, 2).replay();
+        byte[] wrongMagic = replay.clone();
+        wrongMagic[0] ^= 1;
+        assertThrows(IOException.class, () -> ReplayPlayer.play(wrongMagic));
+        byte[] wrongVersion = replay.clone();
+        wrongVersion[4] = ReplayRecorder.VERSION + 1;
+        assertThrows(IOException.class, () -> ReplayPlayer.play(wrongVersion));
+        assertThrows(IOException.class, () -> ReplayPlayer.play(Arrays.copyOf(replay, replay.length - 1)));
+    }
+
+    private record Recording(byte[] replay, int score, long ticks) {
+    }
+
+    /**
+     * Plays a game with random inputs until it is lost and records it.
+     */
+    private static Recording record(int kind, long seed) {
+        Random random = new Random(seed);
+        GameEngine engine = new GameEngine(Randomizer.create(kind, random), random);
+        engine.setTickPolicy(TickPolicy.UNTHROTTLED);
+        ReplayRecorder recorder = new ReplayRecorder(kind, seed);
+        GameLoop loop = new GameLoop(engine);
+        loop.setRecorder(recorder);
+        loop.start();
+        Random player = new Random(~seed);
+        GameInput[] inputs = GameInput.values();
+        long ticks = 0;
+        while (true) {
+            long skipped = player.nextInt(50) == 0 ? 1 + player.nextInt(3) : 0;
+            ticks++;
+            // drops are rarer than the other inputs, so the blocks are moved around before they land
+            if (player.nextInt(4) == 0) {
+                GameInput input = inputs[player.nextInt(inputs.length)];
+                if (input != GameInput.DROP || player.nextInt(8) == 0) engine.submit(input);
+            }
+            if (!loop.tick(skipped)) break;
+            if (ticks > MAX_TICKS) throw new AssertionError("The random game of seed " + seed + " does not end");
+        }
+        recorder.finish(engine.getScore());
+        return new Recording(recorder.toByteArray(), engine.getScore(), ticks);
+    }
+}